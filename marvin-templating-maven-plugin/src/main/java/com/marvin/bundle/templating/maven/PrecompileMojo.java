@@ -0,0 +1,208 @@
+package com.marvin.bundle.templating.maven;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Environment;
+import com.marvin.bundle.templating.PrecompiledTemplates;
+import com.marvin.bundle.templating.Source;
+import com.marvin.bundle.templating.extention.Extension;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.token.TokenBuffer;
+import com.marvin.bundle.templating.token.TokenStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Tokenizes and parses the templates of a project at build time.
+ *
+ * A template which does not parse fails the build, a template holding a node
+ * the codec can not encode is left to be parsed at runtime, the others are
+ * encoded to the output directory, where {@link PrecompiledTemplates} finds
+ * them at runtime as long as their sources are unchanged. The engine is configured
+ * like the one of the application, using the same delimiters and extensions.
+ */
+@Mojo(name = "precompile",
+        defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE,
+        threadSafe = true)
+public class PrecompileMojo extends AbstractMojo {
+
+    private static final List<String> DEFAULT_INCLUDES = Arrays.asList("*.view", "**/*.view");
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${project.basedir}/src/main/resources", required = true)
+    private File templateDirectory;
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File outputDirectory;
+
+    /**
+     * Glob patterns of the templates, relative to the template directory.
+     */
+    @Parameter
+    private List<String> includes;
+
+    /**
+     * Class names of the extensions registered on the engine, loaded from
+     * the classpath of the project.
+     */
+    @Parameter
+    private List<String> extensions;
+
+    @Parameter(defaultValue = "{{")
+    private String printOpen;
+
+    @Parameter(defaultValue = "}}")
+    private String printClose;
+
+    @Parameter(defaultValue = "{%")
+    private String executeOpen;
+
+    @Parameter(defaultValue = "%}")
+    private String executeClose;
+
+    @Parameter(defaultValue = "{#")
+    private String commentOpen;
+
+    @Parameter(defaultValue = "#}")
+    private String commentClose;
+
+    @Parameter(defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (this.skip || !this.templateDirectory.isDirectory()) {
+            getLog().info("No templates to precompile");
+            return;
+        }
+
+        Path root = this.templateDirectory.toPath();
+        Engine engine = createEngine(root);
+
+        List<String> paths = find(root);
+        int count = 0;
+        for (String path : paths) {
+            byte[] encoded = encode(engine, path);
+
+            try {
+                Path output = this.outputDirectory.toPath();
+                if (null == encoded) {
+                    // do not leave the template of a previous build behind
+                    Files.deleteIfExists(output.resolve(PrecompiledTemplates.location(path)));
+                } else {
+                    PrecompiledTemplates.write(output, path, encoded);
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new MojoExecutionException(String.format("Unable to write the template %s", path), e);
+            }
+        }
+
+        getLog().info(String.format("Precompiled %d templates", count));
+    }
+
+    /**
+     * @return The encoded template, or null if one of its nodes can not be
+     * encoded, such as a node of an extension, the template is then parsed
+     * at runtime
+     */
+    private byte[] encode(Engine engine, String path) throws MojoFailureException {
+        Source source;
+        Node node;
+        try {
+            source = engine.getEnvironment().load(path);
+            TokenBuffer tokens = engine.getTokenizer().tokenize(source);
+            node = engine.getRootNodeParser().parse(new TokenStream(tokens), engine.getExpressionParser(), engine);
+        } catch (Exception e) {
+            throw new MojoFailureException(String.format("Unable to parse the template %s: %s", path, e.getMessage()), e);
+        }
+
+        try {
+            return PrecompiledTemplates.encode(path, engine, source, node);
+        } catch (IOException e) {
+            getLog().warn(String.format("Unable to precompile the template %s, it is parsed at runtime: %s", path, e.getMessage()));
+            return null;
+        }
+    }
+
+    private Engine createEngine(Path root) throws MojoExecutionException {
+        Environment environment = Environment.builder().directory(root).build();
+
+        Engine.EngineBuilder builder = Engine.builder()
+                .environment(environment)
+                .precompiledTemplates(null)
+                .print(this.printOpen, this.printClose)
+                .execute(this.executeOpen, this.executeClose)
+                .comment(this.commentOpen, this.commentClose);
+
+        if (null != this.extensions && !this.extensions.isEmpty()) {
+            ClassLoader classLoader = createProjectClassLoader();
+            for (String name : this.extensions) {
+                try {
+                    Class<?> type = classLoader.loadClass(name);
+                    builder.extension((Extension) type.getDeclaredConstructor().newInstance());
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new MojoExecutionException(String.format("Unable to create the extension %s", name), e);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private ClassLoader createProjectClassLoader() throws MojoExecutionException {
+        try {
+            List<URL> urls = new ArrayList<>();
+            for (String element : this.project.getCompileClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+            return new URLClassLoader(urls.toArray(new URL[urls.size()]), getClass().getClassLoader());
+        } catch (DependencyResolutionRequiredException | MalformedURLException e) {
+            throw new MojoExecutionException("Unable to resolve the classpath of the project", e);
+        }
+    }
+
+    /**
+     * @return The paths of the included templates, relative to the root
+     */
+    private List<String> find(Path root) throws MojoExecutionException {
+        List<String> patterns = null == this.includes || this.includes.isEmpty() ? DEFAULT_INCLUDES : this.includes;
+        List<PathMatcher> matchers = patterns.stream()
+                .map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern))
+                .collect(Collectors.toList());
+
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(root::relativize)
+                    .filter(file -> matchers.stream().anyMatch(matcher -> matcher.matches(file)))
+                    .map(file -> file.toString().replace(File.separatorChar, '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new MojoExecutionException(String.format("Unable to list the templates of %s", root), e);
+        }
+    }
+}
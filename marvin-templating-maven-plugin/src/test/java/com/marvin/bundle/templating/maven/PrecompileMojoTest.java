@@ -0,0 +1,113 @@
+package com.marvin.bundle.templating.maven;
+
+import com.marvin.bundle.templating.PrecompiledTemplates;
+import com.marvin.bundle.templating.extention.Extension;
+import com.marvin.bundle.templating.node.NodeParser;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.token.TokenType;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrecompileMojoTest {
+
+    private final List<String> warnings = new ArrayList<>();
+
+    private Path templates;
+
+    private Path output;
+
+    private PrecompileMojo mojo;
+
+    @Before
+    public void setUp() throws Exception {
+        this.templates = Files.createTempDirectory("templates");
+        this.output = Files.createTempDirectory("classes");
+
+        this.mojo = new PrecompileMojo();
+        set("project", new MavenProject() {
+            @Override
+            public List<String> getCompileClasspathElements() {
+                return Collections.emptyList();
+            }
+        });
+        set("templateDirectory", this.templates.toFile());
+        set("outputDirectory", this.output.toFile());
+        set("extensions", Collections.singletonList(MarkerExtension.class.getName()));
+        set("printOpen", "{{");
+        set("printClose", "}}");
+        set("executeOpen", "{%");
+        set("executeClose", "%}");
+        set("commentOpen", "{#");
+        set("commentClose", "#}");
+
+        this.mojo.setLog(new SystemStreamLog() {
+            @Override
+            public void warn(CharSequence content) {
+                PrecompileMojoTest.this.warnings.add(content.toString());
+            }
+        });
+    }
+
+    /**
+     * A template holding a node of an extension is left to the runtime, the
+     * build goes on with the other templates.
+     */
+    @Test
+    public void skipsTemplatesWhichCanNotBeEncoded() throws Exception {
+        write("plain.view", "{{ 1 + 1 }}");
+        write("marked.view", "before {% marker %} after");
+
+        // a template encoded by a previous build is removed
+        Path stale = this.output.resolve(PrecompiledTemplates.location("marked.view"));
+        Files.createDirectories(stale.getParent());
+        Files.write(stale, new byte[]{1});
+
+        this.mojo.execute();
+
+        assertTrue(Files.isRegularFile(this.output.resolve(PrecompiledTemplates.location("plain.view"))));
+        assertFalse(Files.exists(stale));
+        assertEquals(1, this.warnings.size());
+        assertTrue(this.warnings.get(0), this.warnings.get(0).contains("marked.view"));
+        assertTrue(this.warnings.get(0), this.warnings.get(0).contains(MarkerNode.class.getName()));
+    }
+
+    private void write(String path, String content) throws Exception {
+        Files.write(this.templates.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = PrecompileMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(this.mojo, value);
+    }
+
+    public static class MarkerExtension implements Extension {
+
+        @Override
+        public Map<String, NodeParser> getNodeParsers() {
+            NodeParser parser = (stream, expressionParser, engine, endCondition) -> {
+                // skip the 'marker' token
+                stream.next();
+                stream.expect(TokenType.EXECUTE_CLOSE);
+                return new MarkerNode();
+            };
+            return Collections.singletonMap("marker", parser);
+        }
+    }
+
+    public static class MarkerNode implements Node {
+    }
+}
@@ -0,0 +1,236 @@
+package com.marvin.bundle.templating.processor;
+
+import com.marvin.bundle.templating.expression.accessor.AccessorTable;
+import com.marvin.bundle.templating.expression.accessor.AccessorTables;
+import com.marvin.bundle.templating.expression.accessor.TemplateModel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the {@link AccessorTable} of each class marked as a
+ * {@link TemplateModel}, and registers the tables as services.
+ *
+ * A table is generated next to its model, so it reads the public getters,
+ * methods without arguments and fields of the model directly. The other
+ * attributes are still resolved by reflection.
+ */
+@SupportedAnnotationTypes("com.marvin.bundle.templating.expression.accessor.TemplateModel")
+public class AccessorTableProcessor extends AbstractProcessor {
+
+    /**
+     * The prefixes of the methods reading a property, by priority.
+     */
+    private static final String[] PREFIXES = {"get", "is", "has"};
+
+    private static final int METHOD_RANK = PREFIXES.length;
+
+    private static final int FIELD_RANK = PREFIXES.length + 1;
+
+    /**
+     * The names of the tables generated so far.
+     */
+    private final List<String> tables = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(TemplateModel.class)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.ENUM) {
+                error("Only classes can be template models", element);
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+                error("A template model must be a top level or member class", element);
+                continue;
+            }
+            if (!isAccessible(type)) {
+                error("A template model can not be private", element);
+                continue;
+            }
+
+            try {
+                this.tables.add(generate(type));
+            } catch (IOException e) {
+                error(String.format("Unable to generate the accessor table: %s", e.getMessage()), element);
+            }
+        }
+
+        if (round.processingOver() && !this.tables.isEmpty()) {
+            register();
+        }
+        return true;
+    }
+
+    /**
+     * @return The qualified name of the generated table
+     */
+    private String generate(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + AccessorTables.SUFFIX;
+        String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String model = type.getQualifiedName().toString();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.printf("package %s;%n%n", packageName);
+            }
+            out.printf("/**%n * The accessor table of {@link %s}, generated by %s.%n */%n", model, getClass().getName());
+            out.printf("public final class %s implements %s {%n%n", simpleName, AccessorTable.class.getName());
+            out.printf("    private static final java.util.Map<String, com.marvin.bundle.templating.expression.accessor.Accessor> ACCESSORS = new java.util.HashMap<>();%n%n");
+            out.printf("    static {%n");
+            for (Map.Entry<String, String> property : properties(type, model).entrySet()) {
+                out.printf("        ACCESSORS.put(\"%s\", (object, arguments) -> %s);%n", property.getKey(), property.getValue());
+            }
+            out.printf("    }%n%n");
+            out.printf("    @Override%n    public Class<?> getType() {%n        return %s.class;%n    }%n%n", model);
+            out.printf("    @Override%n    public com.marvin.bundle.templating.expression.accessor.Accessor get(String name) {%n        return ACCESSORS.get(name);%n    }%n");
+            out.printf("}%n");
+        }
+        return name;
+    }
+
+    /**
+     * Resolves each property like ClassUtils.findMember does, from the
+     * getters, the methods without arguments and the fields of the model.
+     *
+     * @return The body of the accessor of each property, by name
+     */
+    private Map<String, String> properties(TypeElement type, String model) {
+        Map<String, String> bodies = new LinkedHashMap<>();
+        Map<String, Integer> ranks = new HashMap<>();
+
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (!member.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+
+            String name = member.getSimpleName().toString();
+            String receiver = member.getModifiers().contains(Modifier.STATIC) ? model : String.format("((%s) object)", model);
+
+            if (member.getKind() == ElementKind.FIELD) {
+                put(bodies, ranks, name, FIELD_RANK, String.format("%s.%s", receiver, name));
+            } else if (member.getKind() == ElementKind.METHOD && ((ExecutableElement) member).getParameters().isEmpty()) {
+                String body = body((ExecutableElement) member, String.format("%s.%s()", receiver, name));
+                put(bodies, ranks, name, METHOD_RANK, body);
+
+                for (int rank = 0; rank < PREFIXES.length; rank++) {
+                    String prefix = PREFIXES[rank];
+                    if (name.length() > prefix.length() && name.startsWith(prefix) && Character.isUpperCase(name.charAt(prefix.length()))) {
+                        String property = name.substring(prefix.length());
+                        put(bodies, ranks, property, rank, body);
+                        put(bodies, ranks, Character.toLowerCase(property.charAt(0)) + property.substring(1), rank, body);
+                    }
+                }
+            }
+        }
+        return bodies;
+    }
+
+    private String body(ExecutableElement method, String call) {
+        String statement = method.getReturnType().getKind() == TypeKind.VOID ? call + "; return null;" : "return " + call + ";";
+        if (method.getThrownTypes().isEmpty()) {
+            return method.getReturnType().getKind() == TypeKind.VOID ? "{ " + statement + " }" : call;
+        }
+        return String.format("{ try { %s } catch (Exception e) { throw new java.lang.reflect.InvocationTargetException(e); } }", statement);
+    }
+
+    private void put(Map<String, String> bodies, Map<String, Integer> ranks, String name, int rank, String body) {
+        Integer previous = ranks.get(name);
+        if (null == previous || rank < previous) {
+            ranks.put(name, rank);
+            bodies.put(name, body);
+        }
+    }
+
+    private boolean isAccessible(Element element) {
+        for (Element current = element; !(current instanceof PackageElement); current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers the generated tables along with the ones registered by a
+     * previous compilation, which an incremental build does not generate
+     * again.
+     */
+    private void register() {
+        String path = "META-INF/services/" + AccessorTable.class.getName();
+        Set<String> entries = new LinkedHashSet<>(registered(path));
+        entries.addAll(this.tables);
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (Writer writer = file.openWriter()) {
+                for (String table : entries) {
+                    writer.write(table);
+                    writer.write(System.lineSeparator());
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("Unable to register the accessor tables: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return The tables listed by the existing services file, or none if
+     * there is no such file yet
+     */
+    private List<String> registered(String path) {
+        List<String> entries = new ArrayList<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (BufferedReader reader = new BufferedReader(file.openReader(true))) {
+                for (String line = reader.readLine(); null != line; line = reader.readLine()) {
+                    int comment = line.indexOf('#');
+                    String entry = (comment < 0 ? line : line.substring(0, comment)).trim();
+                    if (!entry.isEmpty()) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // nothing registered yet
+        }
+        return entries;
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,138 @@
+package com.marvin.bundle.templating.processor;
+
+import com.marvin.bundle.templating.expression.accessor.AccessorTable;
+import com.marvin.bundle.templating.expression.accessor.AccessorTables;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccessorTableProcessorTest {
+
+    private static final String SERVICES = "META-INF/services/" + AccessorTable.class.getName();
+
+    private Path sources;
+
+    private Path classes;
+
+    @Before
+    public void setUp() throws Exception {
+        this.sources = Files.createTempDirectory("sources");
+        this.classes = Files.createTempDirectory("classes");
+    }
+
+    @Test
+    public void generatesTheTablesOfTheModels() throws Exception {
+        source("demo/User.java",
+                "package demo;",
+                "@com.marvin.bundle.templating.expression.accessor.TemplateModel",
+                "public class User {",
+                "    public String nick = \"field\";",
+                "    public String getName() { return \"bob\"; }",
+                "    public boolean isActive() { return true; }",
+                "    public String nick() { return \"method\"; }",
+                "    @com.marvin.bundle.templating.expression.accessor.TemplateModel",
+                "    public static class Address {",
+                "        public String getCity() { return \"paris\"; }",
+                "    }",
+                "}");
+        source("demo/Plain.java",
+                "package demo;",
+                "public class Plain {",
+                "    public String getName() { return \"plain\"; }",
+                "}");
+
+        assertTrue(compile());
+
+        assertEquals(Arrays.asList("demo.User_AccessorTable", "demo.User_Address_AccessorTable"), registered());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{this.classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> user = loader.loadClass("demo.User");
+            Object instance = user.getDeclaredConstructor().newInstance();
+            assertEquals("bob", AccessorTables.find(user, "name").access(instance, new Object[0]));
+            assertEquals("bob", AccessorTables.find(user, "getName").access(instance, new Object[0]));
+            assertEquals(true, AccessorTables.find(user, "active").access(instance, new Object[0]));
+            // a method takes precedence over a field
+            assertEquals("method", AccessorTables.find(user, "nick").access(instance, new Object[0]));
+            assertNull(AccessorTables.find(user, "missing"));
+
+            Class<?> address = loader.loadClass("demo.User$Address");
+            Object city = AccessorTables.find(address, "city").access(address.getDeclaredConstructor().newInstance(), new Object[0]);
+            assertEquals("paris", city);
+
+            assertNull(AccessorTables.find(loader.loadClass("demo.Plain"), "name"));
+        }
+    }
+
+    /**
+     * An incremental build only generates the tables of the recompiled
+     * models, the tables registered before are kept.
+     */
+    @Test
+    public void mergesTheExistingRegistrations() throws Exception {
+        Path services = this.classes.resolve(SERVICES);
+        Files.createDirectories(services.getParent());
+        Files.write(services, Arrays.asList("# registered before", "demo.Other_AccessorTable", "demo.User_AccessorTable"));
+
+        source("demo/User.java",
+                "package demo;",
+                "@com.marvin.bundle.templating.expression.accessor.TemplateModel",
+                "public class User {",
+                "    public String getName() { return \"bob\"; }",
+                "}");
+
+        assertTrue(compile());
+
+        assertEquals(Arrays.asList("demo.Other_AccessorTable", "demo.User_AccessorTable"), registered());
+    }
+
+    @Test
+    public void rejectsPrivateModels() throws Exception {
+        source("demo/Outer.java",
+                "package demo;",
+                "public class Outer {",
+                "    @com.marvin.bundle.templating.expression.accessor.TemplateModel",
+                "    private static class Hidden {",
+                "    }",
+                "}");
+
+        assertFalse(compile());
+        assertFalse(Files.exists(this.classes.resolve(SERVICES)));
+    }
+
+    private void source(String path, String... lines) throws Exception {
+        Path file = this.sources.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private boolean compile() throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", AccessorTableProcessor.class.getName(),
+                "-d", this.classes.toString()));
+        try (Stream<Path> files = Files.walk(this.sources)) {
+            files.filter(file -> file.toString().endsWith(".java")).forEach(file -> arguments.add(file.toString()));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        return 0 == compiler.run(null, null, null, arguments.toArray(new String[arguments.size()]));
+    }
+
+    private List<String> registered() throws Exception {
+        return Files.readAllLines(this.classes.resolve(SERVICES), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+package com.marvin.bundle.templating;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The templates each template extends or imports, as found when parsing.
+ *
+ * Only static targets are known, a template whose parent is computed while
+ * rendering has no recorded dependency on it.
+ */
+public class DependencyGraph {
+
+    /**
+     * Templates a template depends on, by path.
+     */
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    /**
+     * Templates depending on a template, by path.
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    /**
+     * Replaces the dependencies of a template.
+     *
+     * @param template The path of the template
+     * @param targets The paths of the templates it extends or imports
+     */
+    public synchronized void set(String template, Set<String> targets) {
+        remove(template);
+        this.dependencies.put(template, new LinkedHashSet<>(targets));
+        targets.forEach(target -> this.dependents.computeIfAbsent(target, (key) -> new LinkedHashSet<>()).add(template));
+    }
+
+    /**
+     * Forgets the dependencies of a template, its dependents are kept.
+     *
+     * @param template The path of the template
+     */
+    public synchronized void remove(String template) {
+        Set<String> previous = this.dependencies.remove(template);
+        if (null == previous) {
+            return;
+        }
+
+        previous.forEach(target -> {
+            Set<String> set = this.dependents.get(target);
+            if (null != set) {
+                set.remove(template);
+                if (set.isEmpty()) {
+                    this.dependents.remove(target);
+                }
+            }
+        });
+    }
+
+    public synchronized Set<String> getDependencies(String template) {
+        return new LinkedHashSet<>(this.dependencies.getOrDefault(template, Collections.emptySet()));
+    }
+
+    public synchronized Set<String> getDependents(String template) {
+        return new LinkedHashSet<>(this.dependents.getOrDefault(template, Collections.emptySet()));
+    }
+
+    /**
+     * @param template The path of the template
+     * @return Every template depending on it, directly or not
+     */
+    public synchronized Set<String> getTransitiveDependents(String template) {
+        Set<String> found = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(this.dependents.getOrDefault(template, Collections.emptySet()));
+
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (found.add(current)) {
+                pending.addAll(this.dependents.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Searches a chain of dependencies leading from a template back to
+     * itself.
+     *
+     * @param template The path of the template
+     * @return The templates of the cycle, starting and ending with the given
+     * one, or an empty list if there is none
+     */
+    public synchronized List<String> findCycle(String template) {
+        List<String> path = new ArrayList<>();
+        path.add(template);
+        if (findCycle(template, template, path, new LinkedHashSet<>())) {
+            return path;
+        }
+        return Collections.emptyList();
+    }
+
+    private boolean findCycle(String origin, String current, List<String> path, Set<String> visited) {
+        for (String target : this.dependencies.getOrDefault(current, Collections.emptySet())) {
+            path.add(target);
+            if (target.equals(origin)) {
+                return true;
+            }
+            if (visited.add(target) && findCycle(origin, target, path, visited)) {
+                return true;
+            }
+            path.remove(path.size() - 1);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,644 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.compiler.TemplateCompiler;
+import com.marvin.bundle.templating.expression.ExpressionParser;
+import com.marvin.bundle.templating.token.Lexer;
+import com.marvin.bundle.templating.token.TokenBuffer;
+import com.marvin.bundle.templating.extention.Extension;
+import com.marvin.bundle.templating.extention.Directive;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.extention.Test;
+import com.marvin.bundle.templating.extention.core.CoreExtension;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.optimizer.ConstantFolder;
+import com.marvin.bundle.templating.optimizer.TemplateOptimizer;
+import com.marvin.bundle.templating.node.NodeParser;
+import com.marvin.bundle.templating.node.NodeParsers;
+import com.marvin.bundle.templating.node.NodeVisitorFactory;
+import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.UnaryOperator;
+import com.marvin.bundle.templating.token.TokenParser;
+import com.marvin.bundle.templating.token.TokenParsers;
+import com.marvin.bundle.templating.token.TokenStream;
+import com.marvin.bundle.templating.token.TokenType;
+import com.marvin.bundle.templating.token.Tokenizer;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static com.marvin.bundle.templating.token.Patterns.compile;
+import static java.util.regex.Pattern.quote;
+
+public class Engine {
+
+    private final Environment environment;
+    
+    private final Map<String, Directive> directives;
+    private final Map<String, NodeParser> nodeParsers;
+    private final Map<String, Filter> filters;
+    private final Map<String, Test> tests;
+    private final List<NodeVisitorFactory> nodeVisitorFactories;
+    private final List<Class> safeNodes;
+    
+    private final Tokenizer tokenizer;
+    private final ExpressionParser expressionParser;
+    private final NodeParser bodyNodeParser;
+    private final NodeParser rootNodeParser;
+    private final TemplateCache templateCache;
+    
+    /**
+     * Templates parsed at build time, if any.
+     */
+    private final PrecompiledTemplates precompiledTemplates;
+    
+    /**
+     * Identifies the delimiters, extensions and operators of this engine, so
+     * that templates precompiled with another configuration are ignored.
+     */
+    private final long fingerprint;
+    
+    /**
+     * Only set when parsed templates are optimized.
+     */
+    private final TemplateOptimizer optimizer;
+    
+    /**
+     * Only set when templates are compiled to classes.
+     */
+    private final TemplateCompiler compiler;
+    
+    /**
+     * Only set when templates are reloaded as their files change.
+     */
+    private TemplateReloader reloader;
+    
+    private final DependencyGraph dependencyGraph = new DependencyGraph();
+    
+    /**
+     * Templates being loaded, by path, so that concurrent loads of a template
+     * parse it once.
+     */
+    private final ConcurrentMap<String, FutureTask<Template>> loading = new ConcurrentHashMap<>();
+
+    public Engine(Environment environment, 
+            ExpressionParser expressionParser,
+            Map<String, Renderer> renderers, 
+            Map<String, Directive> directives,
+            Map<String, NodeParser> nodeParsers,
+            Map<String, Filter> filters,
+            Map<String, Test> tests,
+            List<NodeVisitorFactory> nodeVisitorFactories,
+            List<Class> safeNodes,
+            Tokenizer tokenizer,
+            TemplateCache templateCache,
+            PrecompiledTemplates precompiledTemplates,
+            long fingerprint,
+            TemplateOptimizer optimizer,
+            TemplateCompiler compiler) {
+        this.environment = environment;
+        this.expressionParser = expressionParser;
+        this.directives = directives;
+        this.tokenizer = tokenizer;
+        this.nodeParsers = nodeParsers;
+        this.filters = filters;
+        this.tests = tests;
+        this.nodeVisitorFactories = nodeVisitorFactories;
+        this.bodyNodeParser = NodeParsers.body();
+        this.rootNodeParser = NodeParsers.root(this.bodyNodeParser);
+        this.safeNodes = safeNodes;
+        this.templateCache = templateCache;
+        this.precompiledTemplates = precompiledTemplates;
+        this.fingerprint = fingerprint;
+        this.optimizer = optimizer;
+        this.compiler = compiler;
+    }
+    
+    public Template load(String path) throws Exception {
+        Template cached = this.templateCache.get(path);
+        if (null != cached) {
+            return cached;
+        }
+        
+        // only one thread loads a given path, the others wait for its result;
+        // unlike computeIfAbsent, a task may load the dependencies of its
+        // template while it runs
+        FutureTask<Template> task = new FutureTask<>(() -> loadTemplate(path));
+        FutureTask<Template> running = this.loading.putIfAbsent(path, task);
+        if (null == running) {
+            try {
+                task.run();
+            } finally {
+                this.loading.remove(path, task);
+            }
+            running = task;
+        }
+        
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (Exception) cause;
+        }
+    }
+    
+    private Template loadTemplate(String path) throws Exception {
+        // the template may have been loaded since the cache was checked
+        Template cached = this.templateCache.get(path);
+        if (null != cached) {
+            return cached;
+        }
+        
+        Node parsed = parse(path);
+        Node root = null == this.optimizer ? parsed : this.optimizer.optimize(parsed);
+        Template template = Template.builder().named(path).root(root).build();
+        
+        getNodeVisitorFactories().stream()
+                .map(factory -> factory.create(template))
+                .forEach(visitor -> root.accept(visitor));
+        
+        // static dependencies are checked, then loaded along with the template
+        this.dependencyGraph.set(path, template.getDependencies());
+        List<String> cycle = this.dependencyGraph.findCycle(path);
+        if (!cycle.isEmpty()) {
+            this.dependencyGraph.remove(path);
+            String msg = String.format("Cyclic template dependency %s", String.join(" -> ", cycle));
+            throw new Exception(msg);
+        }
+        
+        for (String dependency : template.getDependencies()) {
+            load(dependency);
+        }
+        
+        if (null != this.compiler) {
+            // visitors still see the parsed nodes through the compiled ones
+            template.setRoot(this.compiler.compile(path, root));
+            template.getBlocks().replaceAll((name, block) -> this.compiler.compile(path, block));
+        }
+        
+        this.templateCache.put(path, template);
+        return template;
+    }
+    
+    private Node parse(String path) throws Exception {
+        // precompiled templates would hide the changes of reloaded ones
+        if (null != this.precompiledTemplates && null == this.reloader) {
+            Node precompiled = this.precompiledTemplates.load(path, this);
+            if (null != precompiled) {
+                return precompiled;
+            }
+        }
+        
+        if (this.tokenizer.isStreaming()) {
+            // the template is tokenized while it is read, its source is not kept
+            try (Reader reader = getEnvironment().open(path)) {
+                return this.rootNodeParser.parse(this.tokenizer.stream(path, reader), getExpressionParser(), this);
+            }
+        }
+        
+        Source source = getEnvironment().load(path);
+        TokenBuffer tokens = this.tokenizer.tokenize(source);
+        return this.rootNodeParser.parse(new TokenStream(tokens), getExpressionParser(), this);
+    }
+    
+    /**
+     * Forgets the source and the compiled template of a template, and of
+     * every template depending on it.
+     * 
+     * @param path The path of the template
+     */
+    public void invalidate(String path) {
+        Set<String> paths = this.dependencyGraph.getTransitiveDependents(path);
+        paths.add(path);
+        
+        paths.forEach(name -> {
+            getEnvironment().invalidate(name);
+            this.templateCache.invalidate(name);
+        });
+    }
+
+    public void render(Template template, Renderer renderer, Map<String, Object> model) throws Exception {
+        Context context = createContext(template, model);
+        render(renderer, context);
+    }
+    
+    public void render(Renderer renderer, Context context) throws Exception {
+        Hierarchy<Template> hierarchy = context.getTemplateHierarchy();
+        
+        hierarchy.get().getRoot().render(context, renderer);
+        Template parent = hierarchy.getParent();
+        if (parent != null) {
+            hierarchy.ascend();
+            render(renderer, context);
+        }
+        
+        renderer.finalyze();
+    }
+    
+    private Context createContext(Template template) {
+        return createContext(template, new HashMap<>());
+    }
+    
+    private Context createContext(Template template, Map<String, Object> model) {
+        return new Context(template, this, Locale.getDefault(), model, safeNodes);
+    }
+    
+    public Environment getEnvironment() {
+        return this.environment;
+    }
+
+    public ExpressionParser getExpressionParser() {
+        return this.expressionParser;
+    }
+
+    public Map<String, Directive> getDirectives() {
+        return this.directives;
+    }
+    
+    public Directive getDirective(String name) {
+        return this.directives.get(name);
+    }
+
+    public Map<String, NodeParser> getNodeParsers() {
+        return nodeParsers;
+    }
+    
+    public NodeParser getNodeParser(String name) {
+        return this.nodeParsers.get(name);
+    }
+
+    /**
+     * @return The body parser shared by every parse of this engine
+     */
+    public NodeParser getBodyNodeParser() {
+        return this.bodyNodeParser;
+    }
+
+    public NodeParser getRootNodeParser() {
+        return this.rootNodeParser;
+    }
+
+    public Tokenizer getTokenizer() {
+        return this.tokenizer;
+    }
+    
+      public Map<String, Filter> getFilters() {
+        return this.filters;
+    }
+    
+    public Filter getFilter(String name) {
+        return this.filters.get(name);
+    }
+
+    public Map<String, Test> getTests() {
+        return tests;
+    }
+    
+    public Test getTest(String name) {
+        return this.tests.get(name);
+    }
+
+    public List<NodeVisitorFactory> getNodeVisitorFactories() {
+        return nodeVisitorFactories;
+    }
+
+    public TemplateCache getTemplateCache() {
+        return templateCache;
+    }
+
+    public PrecompiledTemplates getPrecompiledTemplates() {
+        return precompiledTemplates;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public TemplateOptimizer getOptimizer() {
+        return optimizer;
+    }
+
+    public TemplateCompiler getCompiler() {
+        return compiler;
+    }
+
+    public DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    public TemplateReloader getReloader() {
+        return reloader;
+    }
+
+    public void setReloader(TemplateReloader reloader) {
+        this.reloader = reloader;
+    }
+
+    public static EngineBuilder builder() {
+        return new EngineBuilder();
+    }
+
+    public static class EngineBuilder {
+        
+        private final static TokenParser NAME = TokenParsers.name();
+        private final static TokenParser STRING = TokenParsers.string();
+        private final static TokenParser PUNCTUATION = TokenParsers.punctuation();
+        private final static TokenParser NUMBER = TokenParsers.number();
+        private final static TokenParser EOF = TokenParsers.EOF();
+        private final static TokenParser EXPRESSION = NAME.or(NUMBER).or(PUNCTUATION).or(STRING);
+
+        Tokenizer.TokenizerBuilder tokenizerBuilder = Tokenizer.builder();
+        private Environment environment;
+        private TemplateCache templateCache;
+        private PrecompiledTemplates precompiledTemplates = new PrecompiledTemplates(defaultClassLoader());
+        
+        private final List<String> starts         = new ArrayList<>();
+        
+        private String printOpen    = "{{";
+        private String printClose   = "}}";
+        private String executeOpen  = "{%";
+        private String executeClose = "%}";
+        private String commentOpen  = "{#";
+        private String commentClose = "#}";
+        
+        private boolean lexer = false;
+        private boolean streaming = false;
+        private boolean reload = false;
+        private boolean optimized = true;
+        private boolean compiled = false;
+        
+        private final List<Extension> extensions                  = new ArrayList<>();
+        private final Map<String, UnaryOperator> unaryOperators   = new LinkedHashMap<>();
+        private final Map<String, BinaryOperator> binaryOperators = new LinkedHashMap<>();
+        private final Map<String, Renderer> renderers             = new HashMap<>();
+        private final Map<String, Directive> directives           = new HashMap<>();
+        private final Map<String, NodeParser> nodeParsers         = new HashMap<>();
+        private final Map<String, Filter> filters                 = new HashMap<>();
+        private final Map<String, Test> tests                     = new HashMap<>();
+        private final List<NodeVisitorFactory> factories          = new ArrayList<>();
+        private final List<Class> safeNodes                       = new ArrayList<>();
+        private final Set<String> pureFilters                     = new HashSet<>();
+
+        public EngineBuilder environment(Environment environment) {
+            this.environment = environment;
+            return this;
+        }
+        
+        public EngineBuilder templateCache(TemplateCache templateCache) {
+            this.templateCache = templateCache;
+            return this;
+        }
+        
+        /**
+         * Sets where templates parsed at build time are looked up, they are
+         * looked up with the context class loader of the thread creating the
+         * builder by default.
+         * 
+         * @param precompiledTemplates The precompiled templates, or null to always parse templates
+         * @return This builder
+         */
+        public EngineBuilder precompiledTemplates(PrecompiledTemplates precompiledTemplates) {
+            this.precompiledTemplates = precompiledTemplates;
+            return this;
+        }
+        
+        public EngineBuilder extension(Extension extension) {
+            this.extensions.add(extension);
+            return this;
+        }
+        
+        public EngineBuilder extensions(Extension... extensions) {
+            this.extensions.addAll(Arrays.asList(extensions));
+            return this;
+        }
+        
+        public EngineBuilder execute(String open, String close) {
+            this.executeOpen    = open;
+            this.executeClose   = close;
+            return this;
+        }
+
+        public EngineBuilder comment(String open, String close) {
+            this.commentOpen    = open;
+            this.commentClose   = close;
+            return this;
+        }
+        
+        public EngineBuilder print(String open, String close) {
+            this.printOpen    = open;
+            this.printClose   = close;
+            return this;
+        }
+        
+        /**
+         * Selects the hand-written lexer instead of the token parser
+         * combinators to tokenize templates.
+         * 
+         * @param lexer Whether the lexer should be used
+         * @return This builder
+         */
+        public EngineBuilder lexer(boolean lexer) {
+            this.lexer = lexer;
+            return this;
+        }
+        
+        /**
+         * Tokenizes templates while they are read instead of loading them
+         * first, using the lexer.
+         * 
+         * @param streaming Whether templates should be streamed
+         * @return This builder
+         */
+        public EngineBuilder streaming(boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+        
+        /**
+         * Watches the directory of the environment, reloading templates as
+         * their files change. Meant for development, renders pay nothing
+         * when it is off.
+         * 
+         * @param reload Whether templates should be reloaded
+         * @return This builder
+         */
+        public EngineBuilder reload(boolean reload) {
+            this.reload = reload;
+            return this;
+        }
+        
+        /**
+         * Folds the constant parts of the expressions of parsed templates,
+         * prunes the branches they decide and merges static texts, on by
+         * default.
+         * 
+         * @param optimized Whether parsed templates should be optimized
+         * @return This builder
+         */
+        public EngineBuilder optimized(boolean optimized) {
+            this.optimized = optimized;
+            return this;
+        }
+        
+        /**
+         * Compiles templates to generated classes once parsed, rendering them
+         * without walking their nodes.
+         * 
+         * @param compiled Whether templates should be compiled
+         * @return This builder
+         */
+        public EngineBuilder compiled(boolean compiled) {
+            this.compiled = compiled;
+            return this;
+        }
+        
+        public Engine build() {
+            // add core-extension by default
+            this.extensions.add(new CoreExtension());
+            
+            // load extensions
+            this.extensions.forEach(extension -> {
+                this.renderers.putAll(extension.getRenderers());
+                this.directives.putAll(extension.getDirectives());
+                this.nodeParsers.putAll(extension.getNodeParsers());
+                this.filters.putAll(extension.getFilters());
+                this.tests.putAll(extension.getTests());
+                this.unaryOperators.putAll(extension.getUnaryOperators());
+                this.binaryOperators.putAll(extension.getBinaryOperators());
+                this.factories.addAll(extension.getNodeVisitorFactories());
+                this.safeNodes.addAll(extension.getSafeNodes());
+                this.pureFilters.addAll(extension.getPureFilters());
+            });
+            
+            // create an operator token parser
+            TokenParser unaryOperatorParser = TokenParser.in(TokenType.OPERATOR, this.unaryOperators.keySet().toArray(new String[]{}));
+            TokenParser binaryOperatorParser = TokenParser.in(TokenType.OPERATOR, this.binaryOperators.keySet().toArray(new String[]{}));
+            TokenParser operatorParser = unaryOperatorParser.or(binaryOperatorParser);
+            
+            // once a delimiter is opened, anything unexpected is a syntax error
+            // create a execute token parser
+            TokenParser executeOpenParser   = TokenParser.from(TokenType.EXECUTE_OPEN, compile(quote(this.executeOpen)), false);
+            TokenParser executeCloseParser  = TokenParser.from(TokenType.EXECUTE_CLOSE, compile(quote(this.executeClose)), false);
+            TokenParser executeName         = NAME.or(TokenParsers.missingTagName());
+            TokenParser executeExpression   = operatorParser.or(EXPRESSION).or(TokenParsers.unexpected(this.executeClose));
+            TokenParser executeParser       = executeOpenParser.then(executeName).then(executeExpression.until(executeCloseParser));
+            this.starts.add(this.executeOpen);
+            
+            // create a print token parser
+            TokenParser printOpenParser     = TokenParser.from(TokenType.PRINT_OPEN, compile(quote(this.printOpen)), false);
+            TokenParser printCloseParser    = TokenParser.from(TokenType.PRINT_CLOSE, compile(quote(this.printClose)), false);
+            TokenParser printExpression     = operatorParser.or(EXPRESSION).or(TokenParsers.unexpected(this.printClose));
+            TokenParser printParser         = printOpenParser.then(printExpression.until(printCloseParser));
+            this.starts.add(this.printOpen);
+            
+            // create a comment token parser
+            TokenParser commentOpenParser   = TokenParser.from(TokenType.COMMENT_OPEN, compile(quote(this.commentOpen)), false);
+            TokenParser commentCloseParser  = TokenParser.from(TokenType.COMMENT_CLOSE, compile(quote(this.commentClose)), false);
+            TokenParser commentInner        = TokenParser.until(TokenType.TEXT, this.commentClose);
+            TokenParser commentEnd          = commentCloseParser.or(TokenParsers.unclosedComment(this.commentClose));
+            TokenParser commentParser       = commentOpenParser.then(commentInner.optional()).then(commentEnd);
+            this.starts.add(this.commentOpen);
+            
+            // create a text token parser
+            TokenParser leadingText = TokenParser.until(TokenType.TEXT, this.starts);
+            TokenParser text = TokenParser.from(TokenType.TEXT, compile("^.*", Pattern.DOTALL | Pattern.MULTILINE), false);
+            
+            TokenParser principal = commentParser.or(executeParser).or(printParser).or(leadingText).zeroOrMore().then(text.optional()).then(EOF);
+            this.tokenizerBuilder.parser(principal);
+            
+            if (this.lexer || this.streaming) {
+                // operators are tried in the same order as the operator parser
+                List<String> operators = new ArrayList<>(this.unaryOperators.keySet());
+                operators.addAll(this.binaryOperators.keySet());
+                this.tokenizerBuilder.lexer(new Lexer(
+                        this.printOpen, this.printClose,
+                        this.executeOpen, this.executeClose,
+                        this.commentOpen, this.commentClose,
+                        operators.toArray(new String[]{})));
+            }
+            
+            Tokenizer tokenizer = this.tokenizerBuilder.streaming(this.streaming).build();
+            
+            ExpressionParser expressionParser = new ExpressionParser(this.unaryOperators, this.binaryOperators,
+                    this.filters, this.tests, this.directives);
+            
+            if (null == this.templateCache) {
+                this.templateCache = TemplateCache.builder().build();
+            }
+            
+            Engine engine = new Engine(this.environment, expressionParser,
+                    renderers, directives, nodeParsers, 
+                    filters, tests, factories, safeNodes,
+                    tokenizer, templateCache, precompiledTemplates, fingerprint(),
+                    this.optimized ? createOptimizer() : null,
+                    this.compiled ? new TemplateCompiler(safeNodes) : null);
+            
+            if (this.reload) {
+                MappedFileLoader fileLoader = this.environment.getFileLoader();
+                if (null == fileLoader) {
+                    throw new IllegalStateException("Templates can only be reloaded from a directory, none is set on the environment");
+                }
+                
+                try {
+                    TemplateReloader reloader = new TemplateReloader(engine, fileLoader.getDirectory());
+                    reloader.start();
+                    engine.setReloader(reloader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            
+            return engine;
+        }
+        
+        /**
+         * @return The CRC-32 of the delimiters, the class names of the
+         * extensions and the operators
+         */
+        private long fingerprint() {
+            StringBuilder configuration = new StringBuilder();
+            for (String delimiter : new String[]{this.printOpen, this.printClose, this.executeOpen, this.executeClose, this.commentOpen, this.commentClose}) {
+                configuration.append(delimiter).append('\n');
+            }
+            configuration.append('\0');
+            this.extensions.forEach(extension -> configuration.append(extension.getClass().getName()).append('\n'));
+            configuration.append('\0');
+            this.unaryOperators.keySet().forEach(operator -> configuration.append(operator).append('\n'));
+            configuration.append('\0');
+            this.binaryOperators.keySet().forEach(operator -> configuration.append(operator).append('\n'));
+            
+            CRC32 crc = new CRC32();
+            crc.update(configuration.toString().getBytes(StandardCharsets.UTF_8));
+            return crc.getValue();
+        }
+        
+        private static ClassLoader defaultClassLoader() {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            return null == classLoader ? Engine.class.getClassLoader() : classLoader;
+        }
+        
+        private TemplateOptimizer createOptimizer() {
+            ConstantFolder folder = new ConstantFolder(this.unaryOperators, this.binaryOperators, this.pureFilters);
+            return new TemplateOptimizer(folder, this.safeNodes);
+        }
+
+    }
+}
@@ -0,0 +1,191 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.component.resource.ResourceService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Environment {
+    
+    private ResourceService resourceService;
+    
+    /**
+     * When set, templates are loaded from the file system instead of the
+     * resource service.
+     */
+    private MappedFileLoader fileLoader;
+    
+    private Charset charset = StandardCharsets.UTF_8;
+    
+    /**
+     * Loaded sources, indexed by path.
+     */
+    private final ConcurrentMap<String, Source> sources = new ConcurrentHashMap<>();
+    
+    private final LongAdder hitCount = new LongAdder();
+    
+    private final LongAdder missCount = new LongAdder();
+    
+    public List<Source> getSources() {
+        return new ArrayList<>(this.sources.values());
+    }
+    
+    public Source load(String path) {
+        Source source = this.sources.get(path);
+        
+        if (null != source) {
+            this.hitCount.increment();
+            return source;
+        }
+        
+        // only one thread reads a given path, the others wait for its result
+        boolean[] read = new boolean[1];
+        source = this.sources.computeIfAbsent(path, (name) -> {
+            read[0] = true;
+            return read(name);
+        });
+        
+        if (read[0]) {
+            this.missCount.increment();
+        } else {
+            this.hitCount.increment();
+        }
+        
+        return source;
+    }
+    
+    /**
+     * Opens a template for it to be read as a stream, its source is neither
+     * loaded nor kept.
+     * 
+     * @param path The path of the template
+     * @return A reader of the template, to be closed by the caller
+     */
+    public Reader open(String path) {
+        if (null != this.fileLoader) {
+            try {
+                return this.fileLoader.open(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        InputStream stream = getResourceService().load(path);
+        return new InputStreamReader(stream, this.charset);
+    }
+    
+    private Source read(String path) {
+        if (null != this.fileLoader) {
+            try {
+                return this.fileLoader.load(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        return Source.builder(path).read(open(path)).build();
+    }
+
+    /**
+     * Forgets the source of a template, it is read again on its next load.
+     * 
+     * @param path The path of the template
+     */
+    public void invalidate(String path) {
+        this.sources.remove(path);
+    }
+
+    public void setSources(List<Source> sources) {
+        this.sources.clear();
+        sources.forEach(source -> this.sources.put(source.getName(), source));
+    }
+    
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+    
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+    
+    public ResourceService getResourceService() {
+        return resourceService;
+    }
+
+    public void setResourceService(ResourceService resourceService) {
+        this.resourceService = resourceService;
+    }
+
+    public MappedFileLoader getFileLoader() {
+        return fileLoader;
+    }
+
+    public void setFileLoader(MappedFileLoader fileLoader) {
+        this.fileLoader = fileLoader;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    public static EnvironmentBuilder builder() {
+        return new EnvironmentBuilder();
+    }
+    
+    public static class EnvironmentBuilder {
+    
+        private ResourceService resourceService;
+        
+        private Path directory;
+        
+        private Charset charset = StandardCharsets.UTF_8;
+        
+        public EnvironmentBuilder resourceService(ResourceService service) {
+            this.resourceService = service;
+            return this;
+        }
+        
+        /**
+         * Loads templates from a directory, mapping their files in memory.
+         * 
+         * @param directory The directory templates are resolved against
+         * @return This builder
+         */
+        public EnvironmentBuilder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+        
+        public EnvironmentBuilder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+        
+        public Environment build() {
+            Environment env = new Environment();
+            
+            env.setResourceService(resourceService);
+            env.setCharset(charset);
+            
+            if (null != directory) {
+                env.setFileLoader(MappedFileLoader.builder(directory).charset(charset).build());
+            }
+            
+            return env;
+        }
+    }
+}
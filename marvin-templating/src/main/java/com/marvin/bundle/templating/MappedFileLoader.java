@@ -0,0 +1,137 @@
+package com.marvin.bundle.templating;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads templates from a directory of the file system.
+ *
+ * Each file is mapped in memory and decoded straight into the characters of
+ * its source, there is no intermediate copy.
+ */
+public class MappedFileLoader {
+
+    private final Path directory;
+
+    /**
+     * The absolute and normalized directory, templates are only resolved
+     * within it.
+     */
+    private final Path root;
+
+    private final Charset charset;
+
+    public MappedFileLoader(Path directory, Charset charset) {
+        this.directory = directory;
+        this.root = directory.toAbsolutePath().normalize();
+        this.charset = charset;
+    }
+
+    /**
+     * @param path The path of the template, relative to the directory
+     * @return The source of the template
+     * @throws IOException Thrown if the file can not be read or decoded
+     */
+    public Source load(String path) throws IOException {
+        Path file = resolve(path);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                String msg = String.format("Unable to map the template %s, it exceeds %d bytes", file, Integer.MAX_VALUE);
+                throw new IOException(msg);
+            }
+
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CharsetDecoder decoder = this.charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+            // enough characters for any content, a single one per byte in UTF-8
+            char[] characters = new char[(int) Math.ceil(size * (double) decoder.maxCharsPerByte())];
+            CharBuffer buffer = CharBuffer.wrap(characters);
+
+            decode(decoder.decode(bytes, buffer, true), file);
+            decode(decoder.flush(buffer), file);
+
+            return new Source(path, characters, buffer.position());
+        }
+    }
+
+    /**
+     * @param path The path of the template, relative to the directory
+     * @return A reader of the template, to be closed by the caller
+     * @throws IOException Thrown if the file can not be opened
+     */
+    public Reader open(String path) throws IOException {
+        return Files.newBufferedReader(resolve(path), this.charset);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return The file of the template, which must be within the directory
+     * @throws IOException Thrown if the path leads out of the directory
+     */
+    private Path resolve(String path) throws IOException {
+        Path file = this.root.resolve(path).normalize();
+        if (!file.startsWith(this.root)) {
+            String msg = String.format("Unable to load the template %s, it is outside of %s", path, this.directory);
+            throw new IOException(msg);
+        }
+        return file;
+    }
+
+    private void decode(CoderResult result, Path file) throws IOException {
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                String msg = String.format("Unable to decode the template %s as %s", file, this.charset);
+                throw new IOException(msg, e);
+            }
+        }
+    }
+
+    public static MappedFileLoaderBuilder builder(Path directory) {
+        return new MappedFileLoaderBuilder(directory);
+    }
+
+    public static class MappedFileLoaderBuilder {
+
+        private final Path directory;
+
+        private Charset charset = StandardCharsets.UTF_8;
+
+        public MappedFileLoaderBuilder(Path directory) {
+            this.directory = directory;
+        }
+
+        public MappedFileLoaderBuilder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        public MappedFileLoader build() {
+            return new MappedFileLoader(this.directory, this.charset);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.node.support.Node;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Templates parsed at build time, found on the classpath next to the classes
+ * of the application.
+ *
+ * A precompiled template keeps the checksum of its source and the fingerprint
+ * of the engine which parsed it, it is only used while the source of the
+ * template is unchanged and by an engine configured the same way.
+ */
+public class PrecompiledTemplates {
+
+    public static final String DIRECTORY = "META-INF/templates/";
+
+    public static final String SUFFIX = ".ast";
+
+    private static final int CHECKSUM_BUFFER = 8192;
+
+    private final ClassLoader classLoader;
+
+    public PrecompiledTemplates(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param path The path of the template
+     * @param engine The engine the template is loaded for
+     * @return The root node of the template, or null if it was not precompiled from its current source
+     * @throws IOException Thrown if the precompiled template can not be read
+     */
+    public Node load(String path, Engine engine) throws IOException {
+        InputStream stream = this.classLoader.getResourceAsStream(location(path));
+        if (null == stream) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(stream))) {
+            return TemplateCodec.read(input, engine, checksum(engine.getEnvironment().load(path)));
+        }
+    }
+
+    /**
+     * Encodes a parsed template, before anything is written so that a
+     * template which can not be encoded leaves no file behind.
+     *
+     * @param path The path of the template
+     * @param engine The engine the template was parsed by
+     * @param source The source the template was parsed from
+     * @param root The root node of the template
+     * @return The encoded template
+     * @throws IOException Thrown if a node of the template can not be encoded
+     */
+    public static byte[] encode(String path, Engine engine, Source source, Node root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            TemplateCodec.write(path, engine.getFingerprint(), checksum(source), root, output);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes an encoded template where it is loaded from.
+     *
+     * @param directory The root of the classpath, such as the output directory of a build
+     * @param path The path of the template
+     * @param encoded The template, as encoded by {@link #encode}
+     * @throws IOException Thrown if the template can not be written
+     */
+    public static void write(Path directory, String path, byte[] encoded) throws IOException {
+        Path file = directory.resolve(location(path));
+        Files.createDirectories(file.getParent());
+        Files.write(file, encoded);
+    }
+
+    public static String location(String path) {
+        return DIRECTORY + path + SUFFIX;
+    }
+
+    /**
+     * @param source The source of a template
+     * @return The CRC-32 of the characters of the source, read two bytes per
+     * character without copying the source
+     */
+    public static long checksum(Source source) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[CHECKSUM_BUFFER];
+        int length = source.length();
+        int count = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            buffer[count++] = (byte) (c >>> 8);
+            buffer[count++] = (byte) c;
+
+            if (count == buffer.length) {
+                crc.update(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        crc.update(buffer, 0, count);
+        return crc.getValue();
+    }
+}
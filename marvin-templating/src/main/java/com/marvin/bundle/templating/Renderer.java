@@ -0,0 +1,18 @@
+package com.marvin.bundle.templating;
+
+public interface Renderer {
+    
+    void renderValue(Object value);
+    
+    /**
+     * Renders static text of a template, such as the merged texts of a
+     * {@link com.marvin.bundle.templating.node.support.TextRunNode}.
+     * 
+     * @param text The text
+     */
+    default void renderText(String text) {
+        renderValue(text);
+    }
+    
+    void finalyze();
+}
@@ -0,0 +1,268 @@
+package com.marvin.bundle.templating;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The immutable characters of a template.
+ * 
+ * A source is never consumed, it can be tokenized any number of times, from
+ * any number of threads, through the cursors it creates.
+ */
+public class Source implements CharSequence {
+    
+    private final String name;
+
+    /**
+     * The characters found within the template.
+     */
+    private final char[] source;
+
+    /**
+     * Number of characters stored in source array.
+     */
+    private final int size;
+
+    /**
+     * Index of the first character of each line, only built when a position
+     * is needed.
+     */
+    private volatile int[] lineStarts;
+
+    /**
+     * Default capacity
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    public Source(String name, char[] source, int size) {
+        this.name = name;
+        this.source = source;
+        this.size = size;
+    }
+    
+    /**
+     * Creates a new cursor positioned on the first character.
+     *
+     * @return A cursor over this source
+     */
+    public SourceCursor cursor() {
+        return new SourceCursor(this);
+    }
+
+    public String substring(int start, int end) {
+        return new String(source, start, end - start);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given characters,
+     * starting the search at the given index.
+     *
+     * @param target The characters to search for
+     * @param fromIndex The index to start the search from
+     * @return The index of the first occurrence, or -1 if there is none
+     */
+    public int indexOf(String target, int fromIndex) {
+        int length = target.length();
+        if (length == 0) {
+            return fromIndex <= size ? fromIndex : -1;
+        }
+        
+        char first = target.charAt(0);
+        int max = size - length;
+        
+        for (int i = Math.max(fromIndex, 0); i <= max; i++) {
+            // look for the first character
+            if (source[i] != first) {
+                while (++i <= max && source[i] != first);
+            }
+            
+            // then check the remaining ones
+            if (i <= max) {
+                int j = 1;
+                while (j < length && source[i + j] == target.charAt(j)) {
+                    j++;
+                }
+                if (j == length) {
+                    return i;
+                }
+            }
+        }
+        
+        return -1;
+    }
+
+    /**
+     * @param target The characters to compare with
+     * @param index The index of the first character to compare
+     * @return true if the source contains the given characters at index
+     */
+    public boolean regionMatches(String target, int index) {
+        int length = target.length();
+        if (index < 0 || index + length > size) {
+            return false;
+        }
+        
+        for (int i = 0; i < length; i++) {
+            if (source[index + i] != target.charAt(i)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return source[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(source, 0, size);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Computes the line and column of a character.
+     *
+     * @param offset The index of the character
+     * @return The position of the character
+     */
+    public Position getPosition(int offset) {
+        int[] starts = getLineStarts();
+        int line = Arrays.binarySearch(starts, offset);
+        if (line < 0) {
+            line = -line - 2;
+        }
+        return new Position(name, line + 1, offset - starts[line] + 1);
+    }
+
+    private int[] getLineStarts() {
+        int[] starts = this.lineStarts;
+        if (null == starts) {
+            starts = indexLines();
+            this.lineStarts = starts;
+        }
+        return starts;
+    }
+
+    private int[] indexLines() {
+        int[] starts = new int[16];
+        int lines = 1;
+        int index = 0;
+        while (index < size) {
+            int sizeOfNewline = sizeOfNewline(index);
+            if (sizeOfNewline > 0) {
+                index += sizeOfNewline;
+                if (lines == starts.length) {
+                    starts = Arrays.copyOf(starts, lines << 1);
+                }
+                starts[lines++] = index;
+            } else {
+                index++;
+            }
+        }
+        return Arrays.copyOf(starts, lines);
+    }
+
+    /**
+     * Returns how many characters are used to represent a newline (windows
+     * uses two characters to represent one newline).
+     *
+     * @param index The index of the potential newline character
+     * @return The size of the newline, 0 if there is none at index
+     */
+    private int sizeOfNewline(int index) {
+        char character = source[index];
+
+        // windows newline
+        if ('\r' == character && index + 1 < size && '\n' == source[index + 1]) {
+            return 2;
+        }
+
+        // various other newline characters
+        if ('\n' == character || '\r' == character 
+                || '\u0085' == character || '\u2028' == character
+                || '\u2029' == character) {
+            return 1;
+        }
+
+        return 0;
+    }
+
+    public static SourceBuilder builder(String name) {
+        return new SourceBuilder(name);
+    }
+
+    public static class SourceBuilder {
+
+        private final String name;
+        private char[] source = new char[DEFAULT_CAPACITY];
+        private int size = 0;
+
+        public SourceBuilder(String name) {
+            this.name = name;
+        }
+        
+        public SourceBuilder read(String string) {
+            return read(new StringReader(string));
+        }
+
+        public SourceBuilder read(Reader reader) {
+            try {
+                char[] buffer = new char[1024 * 4];
+                int amountJustRead = 0;
+                while ((amountJustRead = reader.read(buffer)) != -1) {
+                    ensureCapacity(size + amountJustRead);
+                    append(buffer, amountJustRead);
+                }
+                reader.close();
+            } catch (IOException ex) {
+                Logger.getLogger(Source.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            return this;
+        }
+
+        public SourceBuilder append(char[] characters, int amount) {
+            for (int i = 0; i < amount; ++i) {
+                this.source[size + i] = characters[i];
+            }
+            size += amount;
+            return this;
+        }
+
+        public Source build() {
+            return new Source(this.name, this.source, this.size);
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            if (source.length - minCapacity < 0) {
+                grow(minCapacity);
+            }
+        }
+
+        private void grow(int minCapacity) {
+            int oldCapacity = source.length;
+            int newCapacity = Math.max(oldCapacity << 1, minCapacity);
+
+            this.source = Arrays.copyOf(source, newCapacity);
+        }
+    }
+}
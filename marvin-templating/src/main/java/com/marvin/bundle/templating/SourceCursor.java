@@ -0,0 +1,134 @@
+package com.marvin.bundle.templating;
+
+/**
+ * A position within a {@link Source}, moving forward while the source is
+ * tokenized.
+ * 
+ * The cursor shares the characters of its source, it never copies them.
+ */
+public class SourceCursor implements CharSequence {
+    
+    private final Source source;
+
+    /**
+     * An index of the first character for the remaining un-tokenized source.
+     * Lines and columns are only computed from it when a position is needed.
+     */
+    private int offset = 0;
+
+    public SourceCursor(Source source) {
+        this.source = source;
+    }
+    
+    public SourceCursor(Source source, int offset) {
+        this.source = source;
+        this.offset = offset;
+    }
+    
+    /**
+     * Records the current position.
+     *
+     * @return A mark to reset the cursor to
+     */
+    public int mark() {
+        return offset;
+    }
+
+    /**
+     * Moves the cursor back to a previously marked position.
+     *
+     * @param mark The mark to go back to
+     */
+    public void reset(int mark) {
+        this.offset = mark;
+    }
+
+    /**
+     * Moves the start index a certain amount.
+     *
+     * @param amount Amount of characters to advance by
+     */
+    public void advance(int amount) {
+        this.offset += amount;
+    }
+
+    public void advanceThroughWhitespace() {
+        int length = source.length();
+        while (offset < length && Character.isWhitespace(source.charAt(offset))) {
+            this.offset++;
+        }
+    }
+
+    public String substring(int start, int end) {
+        return source.substring(this.offset + start, this.offset + end);
+    }
+
+    public String substring(int end) {
+        return source.substring(this.offset, this.offset + end);
+    }
+
+    /**
+     * @param target The characters to search for
+     * @return The index of the first occurrence relative to the cursor, or -1
+     */
+    public int indexOf(String target) {
+        int index = source.indexOf(target, offset);
+        return index < 0 ? -1 : index - offset;
+    }
+
+    /**
+     * @param target The characters to compare with
+     * @return true if the remaining source starts with the given characters
+     */
+    public boolean startsWith(String target) {
+        return source.regionMatches(target, offset);
+    }
+
+    /**
+     * @return Number of characters remaining to be tokenized
+     */
+    @Override
+    public int length() {
+        return source.length() - offset;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return source.charAt(offset + index);
+    }
+
+    /**
+     * @param index An index relative to the cursor
+     * @return The character at that index, or -1 past the end of the source
+     */
+    public int peek(int index) {
+        int position = offset + index;
+        return position < source.length() ? source.charAt(position) : -1;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(offset, source.length());
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+    
+    public Position getPosition() {
+        return source.getPosition(offset);
+    }
+
+    public String getName() {
+        return source.getName();
+    }
+
+    public Source getSource() {
+        return source;
+    }
+}
@@ -3,8 +3,10 @@ package com.marvin.bundle.templating;
 import com.marvin.bundle.templating.node.support.Node;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class Template {
     
@@ -16,6 +18,11 @@ public class Template {
     
     private final Map<String, Node> blocks = new HashMap<>();
     
+    /**
+     * Paths of the templates extended or imported, when known while parsing.
+     */
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    
     public String getName() {
         return name;
     }
@@ -48,6 +55,14 @@ public class Template {
         return blocks;
     }
     
+    public void registerDependency(String path) {
+        dependencies.add(path);
+    }
+    
+    public Set<String> getDependencies() {
+        return dependencies;
+    }
+    
     public Node getBlock(String name) {
         return blocks.get(name);
     }
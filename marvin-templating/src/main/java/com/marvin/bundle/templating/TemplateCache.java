@@ -0,0 +1,155 @@
+package com.marvin.bundle.templating;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded cache of compiled templates, keyed by path.
+ *
+ * Each entry is weighted (by default using the number of nodes of its tree)
+ * and the least recently used entries are evicted as soon as the total weight
+ * exceeds the maximum weight.
+ */
+public class TemplateCache {
+
+    /**
+     * Default maximum weight, expressed in number of nodes.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 100_000;
+
+    private final long maximumWeight;
+
+    private final ToLongFunction<Template> weigher;
+
+    /**
+     * Entries in access order, the eldest entry being the least recently used.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight = 0;
+
+    public TemplateCache(long maximumWeight, ToLongFunction<Template> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    public synchronized Template get(String name) {
+        Entry entry = this.entries.get(name);
+        if (null == entry) {
+            return null;
+        }
+        return entry.template;
+    }
+
+    public synchronized void put(String name, Template template) {
+        long entryWeight = this.weigher.applyAsLong(template);
+
+        // an entry heavier than the whole cache is never retained
+        if (entryWeight > this.maximumWeight) {
+            invalidate(name);
+            return;
+        }
+
+        Entry previous = this.entries.put(name, new Entry(template, entryWeight));
+        if (null != previous) {
+            this.weight -= previous.weight;
+        }
+        this.weight += entryWeight;
+
+        evict();
+    }
+
+    public synchronized void invalidate(String name) {
+        Entry entry = this.entries.remove(name);
+        if (null != entry) {
+            this.weight -= entry.weight;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    public synchronized boolean contains(String name) {
+        return this.entries.containsKey(name);
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    public long getMaximumWeight() {
+        return this.maximumWeight;
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits in its
+     * maximum weight.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.weight > this.maximumWeight && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            this.weight -= eldest.weight;
+        }
+    }
+
+    /**
+     * Weighs a template by the number of nodes visited in its tree.
+     *
+     * @param template The template to weigh
+     * @return The weight of the template, at least 1
+     */
+    public static long nodeCount(Template template) {
+        long[] count = new long[]{1};
+        if (null != template.getRoot()) {
+            template.getRoot().accept(node -> count[0]++);
+        }
+        return count[0];
+    }
+
+    private static class Entry {
+
+        private final Template template;
+
+        private final long weight;
+
+        Entry(Template template, long weight) {
+            this.template = template;
+            this.weight = weight;
+        }
+    }
+
+    public static TemplateCacheBuilder builder() {
+        return new TemplateCacheBuilder();
+    }
+
+    public static class TemplateCacheBuilder {
+
+        private long maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+
+        private ToLongFunction<Template> weigher = TemplateCache::nodeCount;
+
+        public TemplateCacheBuilder maximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        public TemplateCacheBuilder weigher(ToLongFunction<Template> weigher) {
+            this.weigher = weigher;
+            return this;
+        }
+
+        public TemplateCache build() {
+            return new TemplateCache(this.maximumWeight, this.weigher);
+        }
+    }
+}
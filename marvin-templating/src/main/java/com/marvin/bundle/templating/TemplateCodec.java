@@ -0,0 +1,532 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.expression.support.ArgumentsExpression;
+import com.marvin.bundle.templating.expression.support.ArrayExpression;
+import com.marvin.bundle.templating.expression.support.AttributeExpression;
+import com.marvin.bundle.templating.expression.support.BinaryExpression;
+import com.marvin.bundle.templating.expression.support.CallExpression;
+import com.marvin.bundle.templating.expression.support.FilterExpression;
+import com.marvin.bundle.templating.expression.support.FilterOrTestExpression;
+import com.marvin.bundle.templating.expression.support.LiteralExpression;
+import com.marvin.bundle.templating.expression.support.NumberExpression;
+import com.marvin.bundle.templating.expression.support.TestExpression;
+import com.marvin.bundle.templating.expression.support.UnaryExpression;
+import com.marvin.bundle.templating.expression.support.VariableExpression;
+import com.marvin.bundle.templating.extention.Directive;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.extention.Test;
+import com.marvin.bundle.templating.extention.core.node.BlockNode;
+import com.marvin.bundle.templating.extention.core.node.ExtendsNode;
+import com.marvin.bundle.templating.extention.core.node.ForNode;
+import com.marvin.bundle.templating.extention.core.node.IfNode;
+import com.marvin.bundle.templating.extention.core.node.ImportNode;
+import com.marvin.bundle.templating.extention.core.node.SetNode;
+import com.marvin.bundle.templating.node.support.BodyNode;
+import com.marvin.bundle.templating.node.support.CommentNode;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.node.support.PrintNode;
+import com.marvin.bundle.templating.node.support.RootNode;
+import com.marvin.bundle.templating.node.support.TextNode;
+import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.UnaryOperator;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A versioned binary format for parsed templates.
+ *
+ * The core nodes and expressions are written with their children, operators
+ * by their symbol, so that decoding never tokenizes nor parses the template
+ * again. Nodes and expressions of other extensions can not be encoded.
+ */
+public final class TemplateCodec {
+
+    /**
+     * "MAST", the first bytes of every encoded template.
+     */
+    public static final int MAGIC = 0x4D415354;
+
+    public static final int VERSION = 4;
+
+    private static final byte ROOT = 1;
+    private static final byte BODY = 2;
+    private static final byte TEXT = 3;
+    private static final byte PRINT = 4;
+    private static final byte COMMENT = 5;
+    private static final byte IF = 6;
+    private static final byte FOR = 7;
+    private static final byte BLOCK = 8;
+    private static final byte SET = 9;
+    private static final byte EXTENDS = 10;
+    private static final byte IMPORT = 11;
+
+    private static final byte LITERAL = 1;
+    private static final byte NUMBER = 2;
+    private static final byte VARIABLE = 3;
+    private static final byte ATTRIBUTE = 4;
+    private static final byte CALL = 5;
+    private static final byte UNARY = 6;
+    private static final byte BINARY = 7;
+    private static final byte FILTER = 8;
+    private static final byte TEST = 9;
+    private static final byte FILTER_OR_TEST = 10;
+    private static final byte ARRAY = 11;
+    private static final byte ARGUMENTS = 12;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte BOOLEAN_VALUE = 1;
+    private static final byte STRING_VALUE = 2;
+    private static final byte LONG_VALUE = 3;
+    private static final byte DOUBLE_VALUE = 4;
+    private static final byte EMPTY_LIST_VALUE = 5;
+
+    private TemplateCodec() {
+    }
+
+    /**
+     * @param name The name of the template
+     * @param fingerprint The fingerprint of the engine the template was parsed by
+     * @param checksum The checksum of the source the template was parsed from
+     * @param root The root node of the template
+     * @param output The output the template is encoded to
+     * @throws IOException Thrown if the template can not be encoded
+     */
+    public static void write(String name, long fingerprint, long checksum, Node root, DataOutput output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        writeString(name, output);
+        output.writeLong(fingerprint);
+        output.writeLong(checksum);
+        writeNode(root, output);
+    }
+
+    /**
+     * Decodes a template, resolving its operators with the parser of the given
+     * engine.
+     *
+     * @param input The encoded template
+     * @param engine The engine the template is decoded for
+     * @param checksum The checksum of the current source of the template
+     * @return The root node of the template, or null if it was encoded from
+     * another source, by an engine configured differently or by another
+     * version of the codec
+     * @throws IOException Thrown if the template can not be decoded
+     */
+    public static Node read(DataInput input, Engine engine, long checksum) throws IOException {
+        int magic = input.readInt();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Unable to read the template, unexpected header %08x", magic));
+        }
+
+        // templates encoded by another version are parsed again, like stale ones
+        int version = input.readShort();
+        if (version != VERSION) {
+            return null;
+        }
+
+        String name = readString(input);
+        if (input.readLong() != engine.getFingerprint() || input.readLong() != checksum) {
+            return null;
+        }
+
+        try {
+            return readNode(input, engine);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(String.format("Unable to read the template %s, %s", name, e.getMessage()), e);
+        }
+    }
+
+    private static void writeNode(Node node, DataOutput output) throws IOException {
+        if (node instanceof RootNode) {
+            output.writeByte(ROOT);
+            writeNode(((RootNode) node).getBody(), output);
+        } else if (node instanceof BodyNode) {
+            List<Node> children = ((BodyNode) node).getChildren();
+            output.writeByte(BODY);
+            output.writeInt(children.size());
+            for (Node child : children) {
+                writeNode(child, output);
+            }
+        } else if (node instanceof TextNode) {
+            output.writeByte(TEXT);
+            writeString(((TextNode) node).getValue(), output);
+        } else if (node instanceof PrintNode) {
+            output.writeByte(PRINT);
+            writeExpression(((PrintNode) node).getExpression(), output);
+        } else if (node instanceof CommentNode) {
+            output.writeByte(COMMENT);
+            writeString(((CommentNode) node).getValue(), output);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            output.writeByte(IF);
+            output.writeInt(ifNode.getBodies().size());
+            for (Map.Entry<Expression<Boolean>, BodyNode> entry : ifNode.getBodies().entrySet()) {
+                writeExpression(entry.getKey(), output);
+                writeNode(entry.getValue(), output);
+            }
+            writeOptionalNode(ifNode.getElseBody(), output);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            output.writeByte(FOR);
+            writeString(forNode.getVarExpression().evaluate(), output);
+            writeExpression(forNode.getIterableExpression(), output);
+            writeNode(forNode.getBody(), output);
+            writeOptionalNode(forNode.getElseBody(), output);
+        } else if (node instanceof BlockNode) {
+            BlockNode block = (BlockNode) node;
+            output.writeByte(BLOCK);
+            writeString(block.getName(), output);
+            writeNode(block.getBody(), output);
+        } else if (node instanceof SetNode) {
+            SetNode set = (SetNode) node;
+            output.writeByte(SET);
+            writeString(set.getName(), output);
+            writeExpression(set.getValue(), output);
+        } else if (node instanceof ExtendsNode) {
+            ExtendsNode extend = (ExtendsNode) node;
+            output.writeByte(EXTENDS);
+            writeExpression(extend.getParentExpression(), output);
+            writeString(extend.getParentPath(), output);
+        } else if (node instanceof ImportNode) {
+            ImportNode imported = (ImportNode) node;
+            output.writeByte(IMPORT);
+            writeExpression(imported.getImportExpression(), output);
+            writeString(imported.getImportPath(), output);
+        } else {
+            String msg = String.format("Unable to encode a node of type %s", null == node ? null : node.getClass().getName());
+            throw new IOException(msg);
+        }
+    }
+
+    private static Node readNode(DataInput input, Engine engine) throws Exception {
+        byte type = input.readByte();
+        switch (type) {
+            case ROOT:
+                return new RootNode((BodyNode) readNode(input, engine));
+
+            case BODY:
+                int size = input.readInt();
+                List<Node> children = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    children.add(readNode(input, engine));
+                }
+                return new BodyNode(children);
+
+            case TEXT:
+                return new TextNode(readString(input));
+
+            case PRINT:
+                return new PrintNode(readExpression(input, engine));
+
+            case COMMENT:
+                return new CommentNode(readString(input));
+
+            case IF:
+                int count = input.readInt();
+                Map<Expression<Boolean>, BodyNode> bodies = new LinkedHashMap<>();
+                Expression<Boolean> expression = null;
+                for (int i = 0; i < count; i++) {
+                    expression = readExpression(input, engine);
+                    bodies.put(expression, (BodyNode) readNode(input, engine));
+                }
+                return new IfNode(expression, bodies, readOptionalBody(input, engine));
+
+            case FOR:
+                Expression<String> var = Expression.literalString(readString(input));
+                Expression iterable = readExpression(input, engine);
+                BodyNode body = (BodyNode) readNode(input, engine);
+                return new ForNode(var, iterable, body, readOptionalBody(input, engine));
+
+            case BLOCK:
+                String name = readString(input);
+                return new BlockNode(name, (BodyNode) readNode(input, engine));
+
+            case SET:
+                String variable = readString(input);
+                return new SetNode(variable, readExpression(input, engine));
+
+            case EXTENDS:
+                Expression<String> parent = readExpression(input, engine);
+                return new ExtendsNode(parent, readString(input));
+
+            case IMPORT:
+                Expression<String> imported = readExpression(input, engine);
+                return new ImportNode(imported, readString(input));
+
+            default:
+                throw new IOException(String.format("Unknown node type %d", type));
+        }
+    }
+
+    private static void writeOptionalNode(Node node, DataOutput output) throws IOException {
+        output.writeBoolean(null != node);
+        if (null != node) {
+            writeNode(node, output);
+        }
+    }
+
+    private static BodyNode readOptionalBody(DataInput input, Engine engine) throws Exception {
+        return input.readBoolean() ? (BodyNode) readNode(input, engine) : null;
+    }
+
+    private static void writeExpression(Expression expression, DataOutput output) throws IOException {
+        if (expression instanceof LiteralExpression) {
+            output.writeByte(LITERAL);
+            writeLiteral(((LiteralExpression) expression).getValue(), output);
+        } else if (expression instanceof NumberExpression) {
+            NumberExpression number = (NumberExpression) expression;
+            output.writeByte(NUMBER);
+            writeString(number.getValue(), output);
+            output.writeBoolean(number.isDecimal());
+        } else if (expression instanceof VariableExpression) {
+            output.writeByte(VARIABLE);
+            writeString(((VariableExpression) expression).getName(), output);
+        } else if (expression instanceof AttributeExpression) {
+            AttributeExpression attribute = (AttributeExpression) expression;
+            output.writeByte(ATTRIBUTE);
+            writeExpression(attribute.getObject(), output);
+            writeExpression(attribute.getAttributeName(), output);
+            writeOptionalExpression(attribute.getArguments(), output);
+        } else if (expression instanceof CallExpression) {
+            CallExpression call = (CallExpression) expression;
+            output.writeByte(CALL);
+            writeString(call.getName(), output);
+            writeExpression(call.getArguments(), output);
+        } else if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            output.writeByte(UNARY);
+            writeOperator(unary.getOperator(), output);
+            writeExpression(unary.getOperand(), output);
+        } else if (expression instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) expression;
+            output.writeByte(BINARY);
+            writeOperator(binary.getOperator(), output);
+            writeExpression(binary.getLeft(), output);
+            writeExpression(binary.getRight(), output);
+        } else if (expression instanceof FilterExpression) {
+            FilterExpression filter = (FilterExpression) expression;
+            output.writeByte(FILTER);
+            writeString(filter.getName(), output);
+            writeExpression(filter.getValue(), output);
+            writeExpression(filter.getArguments(), output);
+        } else if (expression instanceof TestExpression) {
+            TestExpression test = (TestExpression) expression;
+            output.writeByte(TEST);
+            writeString(test.getName(), output);
+            writeExpression(test.getValue(), output);
+            writeExpression(test.getArguments(), output);
+        } else if (expression instanceof FilterOrTestExpression) {
+            FilterOrTestExpression filterOrTest = (FilterOrTestExpression) expression;
+            output.writeByte(FILTER_OR_TEST);
+            writeString(filterOrTest.getName(), output);
+            writeExpression(filterOrTest.getValue(), output);
+            writeExpression(filterOrTest.getArguments(), output);
+        } else if (expression instanceof ArrayExpression) {
+            List<Expression> elements = ((ArrayExpression) expression).getElements();
+            output.writeByte(ARRAY);
+            output.writeInt(elements.size());
+            for (Expression element : elements) {
+                writeOptionalExpression(element, output);
+            }
+        } else if (expression instanceof ArgumentsExpression) {
+            Map<String, Expression> arguments = ((ArgumentsExpression) expression).getArguments();
+            output.writeByte(ARGUMENTS);
+            output.writeInt(arguments.size());
+            for (Map.Entry<String, Expression> entry : arguments.entrySet()) {
+                writeString(entry.getKey(), output);
+                writeExpression(entry.getValue(), output);
+            }
+        } else {
+            String msg = String.format("Unable to encode an expression of type %s", null == expression ? null : expression.getClass().getName());
+            throw new IOException(msg);
+        }
+    }
+
+    private static Expression readExpression(DataInput input, Engine engine) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case LITERAL:
+                return new LiteralExpression<>(readLiteral(input));
+
+            case NUMBER:
+                String number = readString(input);
+                return new NumberExpression<>(number, input.readBoolean());
+
+            case VARIABLE:
+                return new VariableExpression(readString(input));
+
+            case ATTRIBUTE:
+                Expression object = readExpression(input, engine);
+                Expression attributeName = readExpression(input, engine);
+                return new AttributeExpression(object, attributeName, readOptionalExpression(input, engine));
+
+            case CALL:
+                String directive = readString(input);
+                Directive boundDirective = engine.getDirective(directive);
+                if (null == boundDirective) {
+                    throw new IOException(String.format("Unknown directive %s", directive));
+                }
+                return new CallExpression(directive, boundDirective, readExpression(input, engine));
+
+            case UNARY:
+                String unary = readString(input);
+                UnaryOperator unaryOperator = engine.getExpressionParser().getUnaryOperators().get(unary);
+                if (null == unaryOperator) {
+                    throw new IOException(String.format("Unknown unary operator %s", unary));
+                }
+                return new UnaryExpression(unary, readExpression(input, engine), unaryOperator.getFunction());
+
+            case BINARY:
+                String binary = readString(input);
+                BinaryOperator binaryOperator = engine.getExpressionParser().getBinaryOperators().get(binary);
+                if (null == binaryOperator) {
+                    throw new IOException(String.format("Unknown binary operator %s", binary));
+                }
+                Expression left = readExpression(input, engine);
+                return Expression.binary(binary, left, readExpression(input, engine), binaryOperator);
+
+            case FILTER:
+                String filter = readString(input);
+                Filter boundFilter = engine.getFilter(filter);
+                if (null == boundFilter) {
+                    throw new IOException(String.format("Unknown filter %s", filter));
+                }
+                Expression filtered = readExpression(input, engine);
+                return new FilterExpression(filter, boundFilter, filtered, readExpression(input, engine));
+
+            case TEST:
+                String test = readString(input);
+                Test boundTest = engine.getTest(test);
+                if (null == boundTest) {
+                    throw new IOException(String.format("Unknown test %s", test));
+                }
+                Expression tested = readExpression(input, engine);
+                return new TestExpression(test, boundTest, tested, readExpression(input, engine));
+
+            case FILTER_OR_TEST:
+                String filterOrTest = readString(input);
+                Filter namedFilter = engine.getFilter(filterOrTest);
+                Test namedTest = null == namedFilter ? engine.getTest(filterOrTest) : null;
+                if (null == namedFilter && null == namedTest) {
+                    throw new IOException(String.format("Unknown filter or test %s", filterOrTest));
+                }
+                Expression value = readExpression(input, engine);
+                return new FilterOrTestExpression(filterOrTest, namedFilter, namedTest, value, readExpression(input, engine));
+
+            case ARRAY:
+                int size = input.readInt();
+                List<Expression> elements = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    elements.add(readOptionalExpression(input, engine));
+                }
+                return new ArrayExpression(elements);
+
+            case ARGUMENTS:
+                int count = input.readInt();
+                Map<String, Expression> arguments = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    String name = readString(input);
+                    arguments.put(name, readExpression(input, engine));
+                }
+                return new ArgumentsExpression(arguments);
+
+            default:
+                throw new IOException(String.format("Unknown expression type %d", type));
+        }
+    }
+
+    private static void writeOptionalExpression(Expression expression, DataOutput output) throws IOException {
+        output.writeBoolean(null != expression);
+        if (null != expression) {
+            writeExpression(expression, output);
+        }
+    }
+
+    private static Expression readOptionalExpression(DataInput input, Engine engine) throws IOException {
+        return input.readBoolean() ? readExpression(input, engine) : null;
+    }
+
+    private static void writeOperator(String operator, DataOutput output) throws IOException {
+        if (null == operator) {
+            throw new IOException("Unable to encode an operator given as a function");
+        }
+        writeString(operator, output);
+    }
+
+    private static void writeLiteral(Object value, DataOutput output) throws IOException {
+        if (null == value) {
+            output.writeByte(NULL_VALUE);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN_VALUE);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof String) {
+            output.writeByte(STRING_VALUE);
+            writeString((String) value, output);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG_VALUE);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE_VALUE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof List && ((List) value).isEmpty()) {
+            output.writeByte(EMPTY_LIST_VALUE);
+        } else {
+            throw new IOException(String.format("Unable to encode a literal of type %s", value.getClass().getName()));
+        }
+    }
+
+    private static Object readLiteral(DataInput input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL_VALUE:
+                return null;
+            case BOOLEAN_VALUE:
+                return input.readBoolean();
+            case STRING_VALUE:
+                return readString(input);
+            case LONG_VALUE:
+                return input.readLong();
+            case DOUBLE_VALUE:
+                return input.readDouble();
+            case EMPTY_LIST_VALUE:
+                return Collections.emptyList();
+            default:
+                throw new IOException(String.format("Unknown literal type %d", type));
+        }
+    }
+
+    /**
+     * Writes a string of any length, {@link DataOutput#writeUTF(String)}
+     * being limited to 64KB.
+     */
+    private static void writeString(String value, DataOutput output) throws IOException {
+        if (null == value) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
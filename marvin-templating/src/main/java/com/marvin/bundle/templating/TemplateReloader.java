@@ -0,0 +1,133 @@
+package com.marvin.bundle.templating;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the directory templates are loaded from, and invalidates the
+ * sources and templates of the files which change.
+ *
+ * Templates known to extend or import a changed template are invalidated as
+ * well. Renders never check anything themselves, so an engine without a
+ * reloader does not pay for it.
+ */
+public class TemplateReloader implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(TemplateReloader.class.getName());
+
+    private final Engine engine;
+
+    private final Path directory;
+
+    private final WatchService watchService;
+
+    /**
+     * Watched directories, by key.
+     */
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+    private final Thread thread;
+
+    public TemplateReloader(Engine engine, Path directory) throws IOException {
+        this.engine = engine;
+        this.directory = directory;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::watch, "template-reloader");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Registers the directory and its sub-directories, then starts watching
+     * them in a daemon thread.
+     *
+     * @throws IOException Thrown if a directory can not be registered
+     */
+    public void start() throws IOException {
+        register(this.directory);
+        this.thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+        this.thread.interrupt();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path watched = this.directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || null == watched) {
+                    // changes were lost, nothing can be trusted anymore
+                    invalidateAll();
+                    continue;
+                }
+
+                Path file = watched.resolve((Path) event.context());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(file)) {
+                    try {
+                        register(file);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.WARNING, String.format("Unable to watch %s", file), e);
+                    }
+                }
+
+                this.engine.invalidate(name(file));
+            }
+
+            if (!key.reset()) {
+                this.directories.remove(key);
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        Environment environment = this.engine.getEnvironment();
+        environment.getSources().forEach(source -> environment.invalidate(source.getName()));
+        this.engine.getTemplateCache().invalidateAll();
+    }
+
+    private void register(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = path.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                this.directories.put(key, path);
+            }
+        }
+    }
+
+    /**
+     * @return The path of the template a file is loaded for
+     */
+    private String name(Path file) {
+        return this.directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+}
@@ -4,6 +4,10 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Objects;
 
+/**
+ * Writes each rendered value followed by a line separator, static text is
+ * written as is.
+ */
 public class WriterRenderer implements Renderer {
     
     private final Writer writer;
@@ -32,4 +36,14 @@ public class WriterRenderer implements Renderer {
             exception.printStackTrace();
         }
     }
+
+    @Override
+    public void renderText(String text) {
+        try {
+            this.writer.write(text);
+        } catch(IOException exception) {
+            // nothing to do ?
+            exception.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.marvin.bundle.templating.compiler;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.Renderer;
+import com.marvin.bundle.templating.node.NodeVisitor;
+import com.marvin.bundle.templating.node.support.Node;
+
+/**
+ * The base class of the nodes generated by {@link TemplateCompiler}.
+ *
+ * Visitors still walk the nodes the class was generated from.
+ */
+public abstract class CompiledNode implements Node {
+
+    private final Node source;
+
+    protected CompiledNode(Node source) {
+        this.source = source;
+    }
+
+    /**
+     * @return The node this one was compiled from
+     */
+    public Node getSource() {
+        return source;
+    }
+
+    @Override
+    public void accept(NodeVisitor visitor) {
+        this.source.accept(visitor);
+    }
+
+    @Override
+    public abstract void render(Context context, Renderer renderer);
+}
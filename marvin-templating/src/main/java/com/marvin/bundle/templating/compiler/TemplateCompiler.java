@@ -0,0 +1,331 @@
+package com.marvin.bundle.templating.compiler;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.Hierarchy;
+import com.marvin.bundle.templating.Renderer;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.core.node.ForNode;
+import com.marvin.bundle.templating.extention.core.node.IfNode;
+import com.marvin.bundle.templating.extention.core.node.SetNode;
+import com.marvin.bundle.templating.node.support.BodyNode;
+import com.marvin.bundle.templating.node.support.CommentNode;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.node.support.PrintNode;
+import com.marvin.bundle.templating.node.support.RootNode;
+import com.marvin.bundle.templating.node.support.TextNode;
+import com.marvin.bundle.templating.node.support.TextRunNode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Compiles parsed nodes to a generated class with a single render method.
+ *
+ * Text is rendered from constants, conditions and loops become branches of
+ * the method, and the expressions are called from fields of the class. Nodes
+ * the compiler does not know are rendered by calling them.
+ */
+public class TemplateCompiler {
+
+    private static final String PACKAGE = "com/marvin/bundle/templating/compiler/generated/";
+
+    private static final String SUPER = Type.getInternalName(CompiledNode.class);
+    private static final String NODE = Type.getInternalName(Node.class);
+    private static final String EXPRESSION = Type.getInternalName(Expression.class);
+    private static final String CONTEXT = Type.getInternalName(Context.class);
+    private static final String RENDERER = Type.getInternalName(Renderer.class);
+    private static final String HIERARCHY = Type.getInternalName(Hierarchy.class);
+    private static final String FOR = Type.getInternalName(ForNode.class);
+    private static final String LOOP = Type.getInternalName(ForNode.Loop.class);
+    private static final String ITERATOR = Type.getInternalName(Iterator.class);
+    private static final String STRING = Type.getInternalName(String.class);
+    private static final String OBJECT = Type.getInternalName(Object.class);
+
+    private static final String RENDER = String.format("(L%s;L%s;)V", CONTEXT, RENDERER);
+
+    /**
+     * Strings of up to this length always fit the constant pool, their
+     * modified UTF-8 form being limited to 65535 bytes.
+     */
+    private static final int MAX_CONSTANT_LENGTH = 65535 / 3;
+
+    private static final int THIS = 0;
+    private static final int CONTEXT_SLOT = 1;
+    private static final int RENDERER_SLOT = 2;
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * Nodes rendered by the root of a template extending another one.
+     */
+    private final List<Class> safeNodes;
+
+    public TemplateCompiler(List<Class> safeNodes) {
+        this.safeNodes = safeNodes;
+    }
+
+    /**
+     * @param name The name of the template, shown in stack traces
+     * @param node The node to compile, usually the root of a template
+     * @return The compiled node, or the node itself if it is too large to be
+     * compiled
+     */
+    public Node compile(String name, Node node) {
+        String className = PACKAGE + "Template" + COUNTER.incrementAndGet();
+        Generator generator = new Generator(className);
+
+        byte[] bytes;
+        try {
+            bytes = generator.generate(name, node);
+        } catch (MethodTooLargeException | ClassTooLargeException e) {
+            // the class file format limits methods to 64KB of bytecode
+            return node;
+        }
+
+        try {
+            // a loader per class, so that the class goes away with its template
+            Class<?> type = new TemplateClassLoader(getClass().getClassLoader()).define(className.replace('/', '.'), bytes);
+            return (Node) type.getConstructor(Node.class, Object[].class).newInstance(node, generator.constants.toArray());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format("Unable to instantiate the compiled template %s", name), e);
+        }
+    }
+
+    private class Generator {
+
+        private final String className;
+
+        private final List<Object> constants = new ArrayList<>();
+
+        private final List<String> descriptors = new ArrayList<>();
+
+        private MethodVisitor method;
+
+        private int nextLocal = RENDERER_SLOT + 1;
+
+        Generator(String className) {
+            this.className = className;
+        }
+
+        byte[] generate(String name, Node node) {
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+            writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, this.className, null, SUPER, null);
+            writer.visitSource(name, null);
+
+            this.method = writer.visitMethod(ACC_PUBLIC, "render", RENDER, null, null);
+            this.method.visitCode();
+            render(node);
+            this.method.visitInsn(RETURN);
+            this.method.visitMaxs(0, 0);
+            this.method.visitEnd();
+
+            // fields are only known once the render method is generated
+            for (int i = 0; i < this.constants.size(); i++) {
+                writer.visitField(ACC_PRIVATE | ACC_FINAL, "c" + i, this.descriptors.get(i), null, null).visitEnd();
+            }
+            generateConstructor(writer);
+
+            writer.visitEnd();
+            return writer.toByteArray();
+        }
+
+        private void generateConstructor(ClassWriter writer) {
+            MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", String.format("(L%s;[L%s;)V", NODE, OBJECT), null, null);
+            constructor.visitCode();
+            constructor.visitVarInsn(ALOAD, THIS);
+            constructor.visitVarInsn(ALOAD, 1);
+            constructor.visitMethodInsn(INVOKESPECIAL, SUPER, "<init>", String.format("(L%s;)V", NODE), false);
+
+            for (int i = 0; i < this.constants.size(); i++) {
+                String descriptor = this.descriptors.get(i);
+                constructor.visitVarInsn(ALOAD, THIS);
+                constructor.visitVarInsn(ALOAD, 2);
+                constructor.visitLdcInsn(i);
+                constructor.visitInsn(AALOAD);
+                constructor.visitTypeInsn(CHECKCAST, Type.getType(descriptor).getInternalName());
+                constructor.visitFieldInsn(PUTFIELD, this.className, "c" + i, descriptor);
+            }
+
+            constructor.visitInsn(RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+        }
+
+        private void render(Node node) {
+            if (node instanceof RootNode) {
+                renderRoot(((RootNode) node).getBody());
+            } else if (node instanceof BodyNode) {
+                ((BodyNode) node).getChildren().forEach(this::render);
+            } else if (node instanceof TextNode) {
+                renderText(((TextNode) node).getValue());
+            } else if (node instanceof TextRunNode) {
+                renderText(((TextRunNode) node).getText());
+            } else if (node instanceof PrintNode) {
+                this.method.visitVarInsn(ALOAD, RENDERER_SLOT);
+                evaluate(((PrintNode) node).getExpression());
+                this.method.visitMethodInsn(INVOKEINTERFACE, RENDERER, "renderValue", String.format("(L%s;)V", OBJECT), true);
+            } else if (node instanceof CommentNode) {
+                // nothing to render
+            } else if (node instanceof IfNode) {
+                renderIf((IfNode) node);
+            } else if (node instanceof ForNode) {
+                renderFor((ForNode) node);
+            } else if (node instanceof SetNode) {
+                SetNode set = (SetNode) node;
+                this.method.visitVarInsn(ALOAD, CONTEXT_SLOT);
+                pushString(set.getName());
+                evaluate(set.getValue());
+                this.method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "set", String.format("(L%s;L%s;)V", STRING, OBJECT), false);
+            } else {
+                pushField(node, NODE);
+                this.method.visitVarInsn(ALOAD, CONTEXT_SLOT);
+                this.method.visitVarInsn(ALOAD, RENDERER_SLOT);
+                this.method.visitMethodInsn(INVOKEINTERFACE, NODE, "render", RENDER, true);
+            }
+        }
+
+        /**
+         * Once a parent template is known, only the safe nodes of the root are
+         * rendered.
+         */
+        private void renderRoot(BodyNode body) {
+            for (Node child : body.getChildren()) {
+                if (safeNodes.contains(child.getClass())) {
+                    render(child);
+                    continue;
+                }
+
+                Label skip = new Label();
+                this.method.visitVarInsn(ALOAD, CONTEXT_SLOT);
+                this.method.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "getTemplateHierarchy", String.format("()L%s;", HIERARCHY), false);
+                this.method.visitMethodInsn(INVOKEVIRTUAL, HIERARCHY, "getParent", String.format("()L%s;", OBJECT), false);
+                this.method.visitJumpInsn(IFNONNULL, skip);
+                render(child);
+                this.method.visitLabel(skip);
+            }
+        }
+
+        private void renderIf(IfNode node) {
+            Label end = new Label();
+
+            for (Map.Entry<Expression<Boolean>, BodyNode> entry : node.getBodies().entrySet()) {
+                Label next = new Label();
+                evaluate(entry.getKey());
+                this.method.visitTypeInsn(CHECKCAST, "java/lang/Boolean");
+                this.method.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+                this.method.visitJumpInsn(IFEQ, next);
+                render(entry.getValue());
+                this.method.visitJumpInsn(GOTO, end);
+                this.method.visitLabel(next);
+            }
+
+            if (null != node.getElseBody()) {
+                render(node.getElseBody());
+            }
+            this.method.visitLabel(end);
+        }
+
+        private void renderFor(ForNode node) {
+            int value = this.nextLocal++;
+            int iterator = this.nextLocal++;
+            int loop = this.nextLocal++;
+
+            Label empty = new Label();
+            Label next = new Label();
+            Label done = new Label();
+            Label end = new Label();
+
+            evaluate(node.getIterableExpression());
+            this.method.visitVarInsn(ASTORE, value);
+            this.method.visitVarInsn(ALOAD, value);
+            this.method.visitMethodInsn(INVOKESTATIC, FOR, "iterator", String.format("(L%s;)L%s;", OBJECT, ITERATOR), false);
+            this.method.visitVarInsn(ASTORE, iterator);
+            this.method.visitVarInsn(ALOAD, iterator);
+            this.method.visitJumpInsn(IFNULL, end);
+            this.method.visitVarInsn(ALOAD, iterator);
+            this.method.visitMethodInsn(INVOKEINTERFACE, ITERATOR, "hasNext", "()Z", true);
+            this.method.visitJumpInsn(IFEQ, empty);
+
+            this.method.visitTypeInsn(NEW, LOOP);
+            this.method.visitInsn(DUP);
+            this.method.visitVarInsn(ALOAD, CONTEXT_SLOT);
+            pushString(node.getVarExpression().evaluate());
+            this.method.visitVarInsn(ALOAD, value);
+            this.method.visitMethodInsn(INVOKESTATIC, FOR, "getIteratorSize", String.format("(L%s;)I", OBJECT), false);
+            this.method.visitMethodInsn(INVOKESPECIAL, LOOP, "<init>", String.format("(L%s;L%s;I)V", CONTEXT, STRING), false);
+            this.method.visitVarInsn(ASTORE, loop);
+
+            this.method.visitLabel(next);
+            this.method.visitVarInsn(ALOAD, loop);
+            this.method.visitVarInsn(ALOAD, iterator);
+            this.method.visitMethodInsn(INVOKEVIRTUAL, LOOP, "next", String.format("(L%s;)Z", ITERATOR), false);
+            this.method.visitJumpInsn(IFEQ, done);
+            render(node.getBody());
+            this.method.visitJumpInsn(GOTO, next);
+
+            this.method.visitLabel(done);
+            this.method.visitVarInsn(ALOAD, loop);
+            this.method.visitMethodInsn(INVOKEVIRTUAL, LOOP, "end", "()V", false);
+            this.method.visitJumpInsn(GOTO, end);
+
+            this.method.visitLabel(empty);
+            if (null != node.getElseBody()) {
+                render(node.getElseBody());
+            }
+            this.method.visitLabel(end);
+        }
+
+        private void renderText(String text) {
+            this.method.visitVarInsn(ALOAD, RENDERER_SLOT);
+            pushString(text);
+            this.method.visitMethodInsn(INVOKEINTERFACE, RENDERER, "renderText", String.format("(L%s;)V", STRING), true);
+        }
+
+        private void evaluate(Expression expression) {
+            pushField(expression, EXPRESSION);
+            this.method.visitVarInsn(ALOAD, CONTEXT_SLOT);
+            this.method.visitMethodInsn(INVOKEINTERFACE, EXPRESSION, "evaluate", String.format("(L%s;)L%s;", CONTEXT, OBJECT), true);
+        }
+
+        private void pushString(String value) {
+            if (null == value) {
+                this.method.visitInsn(ACONST_NULL);
+            } else if (value.length() <= MAX_CONSTANT_LENGTH) {
+                this.method.visitLdcInsn(value);
+            } else {
+                pushField(value, STRING);
+            }
+        }
+
+        private void pushField(Object value, String internalName) {
+            String name = "c" + this.constants.size();
+            String descriptor = "L" + internalName + ";";
+            this.constants.add(value);
+            this.descriptors.add(descriptor);
+
+            this.method.visitVarInsn(ALOAD, THIS);
+            this.method.visitFieldInsn(GETFIELD, this.className, name, descriptor);
+        }
+    }
+
+    private static class TemplateClassLoader extends ClassLoader {
+
+        TemplateClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
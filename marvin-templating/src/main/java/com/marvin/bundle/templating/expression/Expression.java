@@ -0,0 +1,162 @@
+package com.marvin.bundle.templating.expression;
+
+import java.util.Collections;
+import java.util.List;
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.support.ArgumentsExpression;
+import com.marvin.bundle.templating.expression.support.ArrayExpression;
+import com.marvin.bundle.templating.expression.support.AttributeExpression;
+import com.marvin.bundle.templating.expression.support.BinaryExpression;
+import com.marvin.bundle.templating.expression.support.CallExpression;
+import com.marvin.bundle.templating.expression.support.FilterExpression;
+import com.marvin.bundle.templating.expression.support.FilterOrTestExpression;
+import com.marvin.bundle.templating.expression.support.LiteralExpression;
+import com.marvin.bundle.templating.expression.support.NumberExpression;
+import com.marvin.bundle.templating.expression.support.ShortCircuitExpression;
+import com.marvin.bundle.templating.expression.support.TestExpression;
+import com.marvin.bundle.templating.expression.support.UnaryExpression;
+import com.marvin.bundle.templating.expression.support.VariableExpression;
+import com.marvin.bundle.templating.extention.Directive;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.extention.Test;
+import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.ShortCircuitOperator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+@FunctionalInterface
+public interface Expression<T> {
+
+    T evaluate(Context context);
+    
+    default T evaluate(){
+        return evaluate(null);
+    }
+    
+    static Expression<String> functionName(String value) {
+        return literalString(value);
+    }
+    
+    static Expression var(String value) {
+        return new VariableExpression(value);
+    }
+    
+    static Expression<String> varName(String value) {
+        return literalString(value);
+    }
+    
+    static Expression attribute(Expression expression, Expression<String> attributeNameExpression, Expression<Map<String, Object>> argsExpression) {
+        return new AttributeExpression(expression, attributeNameExpression, argsExpression);
+    }
+    
+    static Expression test(String name, Test test, Expression left, Expression<Map<String, Object>> right) {
+        return new TestExpression(name, test, left, right);
+    }
+    
+    static Expression filter(String name, Filter filter, Expression valueExpression, Expression<Map<String, Object>> argsExpression) {
+        return new FilterExpression(name, filter, valueExpression, argsExpression);
+    }
+    
+    static Expression directive(String name, Directive directive, Expression<Map<String, Object>> argsExpression) {
+        return new CallExpression(name, directive, argsExpression);
+    }
+    
+    static Expression binaryOperator(String name, Filter filter, Test test, Expression left, Expression<Map<String, Object>> right) {
+        return new FilterOrTestExpression(name, filter, test, left, right);
+    }
+    
+    static Expression<Map<String, Object>> emptyArguments() throws Exception {
+        return arguments(Collections.EMPTY_LIST, Collections.EMPTY_MAP);
+    }
+    
+    static Expression<Map<String, Object>> arguments(List<Expression> positionalArgs, Map<String, Expression> namedArgs) throws Exception {
+        Map<String, Expression> args = new HashMap<>();
+        if (namedArgs == null || namedArgs.isEmpty()) {
+            if (positionalArgs != null && !positionalArgs.isEmpty()) {
+                for (int i = 0; i < positionalArgs.size(); i++) {
+                    args.put(String.valueOf(i), positionalArgs.get(i));
+                }
+            }
+        } else {
+            if (positionalArgs != null) {
+                int nameIndex = 0;
+                for (Expression arg : positionalArgs) {
+                    if (namedArgs.size() <= nameIndex) {
+                        String msg = String.format("The argument at position %s is not allowed. Only %s argument(s) are allowed.", nameIndex + 1, namedArgs.size());
+                        throw new Exception(msg);
+                    }
+
+                    args.put(String.valueOf(nameIndex), arg);
+                    nameIndex++;
+                }
+            }
+
+            if (!namedArgs.isEmpty()) {
+                for (Map.Entry<String, Expression> entry : namedArgs.entrySet()) {
+                    String name = entry.getKey();
+                    Expression expression = entry.getValue();
+                    if (!namedArgs.keySet().contains(name)) {
+                        String msg = String.format("The following named argument does not exist: %s", name);
+                        throw new Exception(msg);
+                    }
+                    args.put(name, expression);
+                }
+            }
+        }
+        
+        return new ArgumentsExpression(args);
+    }
+    
+    static Expression binary(Expression left, Expression right, BiFunction consumer) {
+        return binary(null, left, right, consumer);
+    }
+    
+    static Expression binary(String operator, Expression left, Expression right, BiFunction consumer) {
+        return new BinaryExpression(operator, left, right, consumer);
+    }
+    
+    static Expression binary(String symbol, Expression left, Expression right, BinaryOperator operator) {
+        if (operator instanceof ShortCircuitOperator) {
+            return new ShortCircuitExpression(symbol, left, right, operator.getFunction(), ((ShortCircuitOperator) operator).getDecisive());
+        }
+        return binary(symbol, left, right, operator.getFunction());
+    }
+    
+    static Expression unary(Expression right, Function consumer) {
+        return unary(null, right, consumer);
+    }
+    
+    static Expression unary(String operator, Expression right, Function consumer) {
+        return new UnaryExpression(operator, right, consumer);
+    }
+    
+    static Expression<Boolean> literalNull() {
+        return new LiteralExpression<>(null);
+    }
+    
+    static Expression<Boolean> literalBoolean(Boolean value) {
+        return new LiteralExpression<>(value);
+    }
+    
+    static Expression<String> literalString(String value) {
+        return new LiteralExpression<>(value);
+    }
+    
+    static Expression<Double> literalDouble(String value) {
+        return new NumberExpression<>(value, true);
+    }
+    
+    static Expression<Long> literalLong(String value) {
+        return new NumberExpression<>(value, false);
+    }
+    
+    static Expression<List> emptyList() {
+        return new LiteralExpression<>(Collections.emptyList());
+    }
+    
+    static Expression<List> array(List<Expression> expressions) {
+        return new ArrayExpression(expressions);
+    }
+}
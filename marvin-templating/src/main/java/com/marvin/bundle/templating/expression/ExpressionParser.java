@@ -1,7 +1,11 @@
 package com.marvin.bundle.templating.expression;
 
+import com.marvin.bundle.templating.extention.Directive;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.extention.Test;
 import com.marvin.bundle.templating.operator.Associativity;
 import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.FilterOrTestOperator;
 import com.marvin.bundle.templating.operator.UnaryOperator;
 import com.marvin.bundle.templating.token.Token;
 import com.marvin.bundle.templating.token.TokenStream;
@@ -20,10 +24,22 @@ public class ExpressionParser {
     
     private final Map<String, UnaryOperator> unaryOperators;
     private final Map<String, BinaryOperator> binaryOperators;
+    
+    /**
+     * Filters, tests and directives are bound while parsing, an unknown name
+     * fails the parse.
+     */
+    private final Map<String, Filter> filters;
+    private final Map<String, Test> tests;
+    private final Map<String, Directive> directives;
 
-    public ExpressionParser(Map<String, UnaryOperator> unaryOperators, Map<String, BinaryOperator> binaryOperators) {
+    public ExpressionParser(Map<String, UnaryOperator> unaryOperators, Map<String, BinaryOperator> binaryOperators,
+            Map<String, Filter> filters, Map<String, Test> tests, Map<String, Directive> directives) {
         this.unaryOperators = unaryOperators;
         this.binaryOperators = binaryOperators;
+        this.filters = filters;
+        this.tests = tests;
+        this.directives = directives;
     }
     
     public Expression parse(TokenStream stream) throws Exception {
@@ -40,7 +56,7 @@ public class ExpressionParser {
             UnaryOperator operator = this.unaryOperators.get(token.getValue());
             stream.next();
             expression = parse(stream, operator.getPrecedence());
-            expression = Expression.unary(expression, operator.getFunction());
+            expression = Expression.unary(token.getValue(), expression, operator.getFunction());
         } else if (token.isA(TokenType.PUNCTUATION, "(")) {
             stream.next();
             expression = parse(stream);
@@ -69,14 +85,15 @@ public class ExpressionParser {
             Expression expressionRight;
             Expression expressionLeft = expression;
             
-            if (stream.current().isA(TokenType.NAME)) {
+            if (operator instanceof FilterOrTestOperator) {
+                // the name is resolved now, an unknown one is never read as a variable
                 expressionRight = parseFilterOrTestExpression(stream, expression);
             } else {
                 int precedence = Associativity.LEFT.equals(operator.getAssociativity()) ? operator.getPrecedence() + 1 : operator.getPrecedence();
                 expressionRight = parse(stream, precedence);
             }
 
-            Expression finalExpression = Expression.binary(expressionLeft, expressionRight, operator.getFunction());
+            Expression finalExpression = Expression.binary(token.getValue(), expressionLeft, expressionRight, operator);
             expression = finalExpression;
             token = stream.current();
         }
@@ -84,6 +101,14 @@ public class ExpressionParser {
         return expression;
     }
     
+    public Map<String, UnaryOperator> getUnaryOperators() {
+        return unaryOperators;
+    }
+
+    public Map<String, BinaryOperator> getBinaryOperators() {
+        return binaryOperators;
+    }
+    
     private Expression subParse(TokenStream stream) throws Exception {
         Expression expression = null;
         Token token = stream.current();
@@ -133,6 +158,7 @@ public class ExpressionParser {
         stream.next();
         return parsePostfixExpression(stream, expression);
     }
+    
     /**
      * Checks if a token is a unary operator.
      *
@@ -193,7 +219,13 @@ public class ExpressionParser {
             argExpression = parseArguments(stream);
         }
 
-        return Expression.binaryOperator(token.getValue(), valueExpression, argExpression);
+        Filter filter = this.filters.get(token.getValue());
+        Test test = null == filter ? this.tests.get(token.getValue()) : null;
+        if (null == filter && null == test) {
+            throw new Exception(String.format("Unknown filter or test %s at %s", token.getValue(), token.getPosition()));
+        }
+
+        return Expression.binaryOperator(token.getValue(), filter, test, valueExpression, argExpression);
     }
     
     public Expression parseFilterInvocationExpression(TokenStream stream, Expression valueExpression) throws Exception {
@@ -204,7 +236,12 @@ public class ExpressionParser {
             argExpression = parseArguments(stream);
         }
 
-        return Expression.filter(token.getValue(), valueExpression, argExpression);
+        Filter filter = this.filters.get(token.getValue());
+        if (null == filter) {
+            throw new Exception(String.format("Unknown filter %s at %s", token.getValue(), token.getPosition()));
+        }
+
+        return Expression.filter(token.getValue(), filter, valueExpression, argExpression);
     }
     
     /**
@@ -245,8 +282,13 @@ public class ExpressionParser {
     
     private Expression parseDirectiveOrMacroInvocation(TokenStream stream, Expression<String> expression) throws Exception {
         String functionName = expression.evaluate();
+        Directive directive = this.directives.get(functionName);
+        if (null == directive) {
+            throw new Exception(String.format("Unknown directive %s at %s", functionName, stream.current().getPosition()));
+        }
+        
         Expression<Map<String, Object>> args = parseArguments(stream);
-        return Expression.directive(functionName, args);
+        return Expression.directive(functionName, directive, args);
     }
     
      public Expression<Map<String, Object>> parseArguments(TokenStream stream) throws Exception {
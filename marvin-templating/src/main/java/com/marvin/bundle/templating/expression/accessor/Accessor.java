@@ -0,0 +1,18 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+/**
+ * Reads an attribute of an object, or calls one of its methods.
+ */
+@FunctionalInterface
+public interface Accessor {
+
+    /**
+     * @param object The object the attribute is read from
+     * @param arguments The arguments of the method, empty for a property
+     * @return The value of the attribute
+     * @throws ReflectiveOperationException When the member can not be
+     * accessed, or it throws an exception, wrapped in an
+     * {@link java.lang.reflect.InvocationTargetException}
+     */
+    Object access(Object object, Object[] arguments) throws ReflectiveOperationException;
+}
@@ -0,0 +1,138 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+import com.marvin.component.util.ClassUtils;
+import java.lang.reflect.Member;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The accessors resolved by an attribute expression, by class of the object,
+ * name of the attribute and types of the arguments.
+ *
+ * A call site remembers the first classes it sees, up to
+ * {@link #POLYMORPHIC_LIMIT}. Once it sees more it becomes megamorphic and
+ * only looks in the cache shared by all call sites.
+ */
+public class AccessorCache {
+
+    public static final int POLYMORPHIC_LIMIT = 4;
+
+    /**
+     * Accessors resolved by all call sites, an empty one when no member
+     * matches. They are kept by the class itself, so that they do not keep
+     * the classes of an undeployed application.
+     */
+    private static final ClassValue<ConcurrentMap<String, Optional<Accessor>>> SHARED = new ClassValue<ConcurrentMap<String, Optional<Accessor>>>() {
+        @Override
+        protected ConcurrentMap<String, Optional<Accessor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    /**
+     * Accessors resolved by this call site, replaced as a whole when one is
+     * added.
+     */
+    private volatile Entry[] entries = EMPTY;
+
+    private volatile boolean megamorphic = false;
+
+    /**
+     * @return The accessor, or null if the class has no member matching
+     */
+    public Accessor find(Class<?> type, String name, Class<?>[] argumentTypes) {
+        if (!this.megamorphic) {
+            Entry[] entries = this.entries;
+            for (Entry entry : entries) {
+                if (entry.matches(type, name, argumentTypes)) {
+                    return entry.accessor;
+                }
+            }
+        }
+
+        Accessor accessor = SHARED.get(type).computeIfAbsent(key(name, argumentTypes),
+                (key) -> Optional.ofNullable(resolve(type, name, argumentTypes))).orElse(null);
+
+        if (!this.megamorphic) {
+            remember(new Entry(type, name, argumentTypes, accessor));
+        }
+        return accessor;
+    }
+
+    /**
+     * Properties of models are read through their generated table, other
+     * members are looked up by reflection.
+     */
+    private static Accessor resolve(Class<?> type, String name, Class<?>[] argumentTypes) {
+        if (argumentTypes.length == 0) {
+            Accessor accessor = AccessorTables.find(type, name);
+            if (null != accessor) {
+                return accessor;
+            }
+        }
+
+        Member member = ClassUtils.findMember(type, name, argumentTypes);
+        return null == member ? null : AccessorFactory.create(member);
+    }
+
+    /**
+     * @return The name of the attribute, followed by the types of the arguments if any
+     */
+    private static String key(String name, Class<?>[] argumentTypes) {
+        if (argumentTypes.length == 0) {
+            return name;
+        }
+
+        StringBuilder key = new StringBuilder(name).append('(');
+        for (int i = 0; i < argumentTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(null == argumentTypes[i] ? "null" : argumentTypes[i].getName());
+        }
+        return key.append(')').toString();
+    }
+
+    public boolean isMegamorphic() {
+        return megamorphic;
+    }
+
+    private void remember(Entry entry) {
+        Entry[] entries = this.entries;
+        if (entries.length >= POLYMORPHIC_LIMIT) {
+            this.megamorphic = true;
+            this.entries = EMPTY;
+            return;
+        }
+
+        Entry[] added = Arrays.copyOf(entries, entries.length + 1);
+        added[entries.length] = entry;
+        this.entries = added;
+    }
+
+    private static class Entry {
+
+        private final Class<?> type;
+
+        private final String name;
+
+        private final Class<?>[] argumentTypes;
+
+        private final Accessor accessor;
+
+        private Entry(Class<?> type, String name, Class<?>[] argumentTypes, Accessor accessor) {
+            this.type = type;
+            this.name = name;
+            this.argumentTypes = argumentTypes;
+            this.accessor = accessor;
+        }
+
+        private boolean matches(Class<?> type, String name, Class<?>[] argumentTypes) {
+            return this.type == type && this.name.equals(name) && Arrays.equals(this.argumentTypes, argumentTypes);
+        }
+    }
+}
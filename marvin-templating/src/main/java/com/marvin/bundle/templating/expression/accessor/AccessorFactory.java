@@ -0,0 +1,128 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Creates the accessors of the members resolved by attribute expressions.
+ *
+ * Getters and methods without arguments of public classes are called
+ * through a {@link Function} spun by the {@link LambdaMetafactory}, other
+ * methods and fields through a {@link MethodHandle}. Members the handles
+ * can not access fall back to reflection.
+ */
+public class AccessorFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GENERIC = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private AccessorFactory() {
+    }
+
+    /**
+     * @return The accessor, or null if the member is neither a method nor a
+     * field
+     */
+    public static Accessor create(Member member) {
+        if (member instanceof Method) {
+            return method((Method) member);
+        } else if (member instanceof Field) {
+            return field((Field) member);
+        }
+        return null;
+    }
+
+    private static Accessor method(Method method) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            return method::invoke;
+        }
+
+        Function function = spin(method, handle);
+        if (null != function) {
+            return (object, arguments) -> {
+                try {
+                    return function.apply(object);
+                } catch (RuntimeException | Error e) {
+                    throw new InvocationTargetException(e);
+                }
+            };
+        }
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return generic(handle.asSpreader(Object[].class, method.getParameterCount()));
+    }
+
+    private static Accessor field(Field field) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            return (object, arguments) -> field.get(object);
+        }
+
+        if (Modifier.isStatic(field.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return generic(MethodHandles.dropArguments(handle, 1, Object[].class));
+    }
+
+    private static Accessor generic(MethodHandle handle) {
+        MethodHandle invoker = handle.asType(GENERIC);
+        return (object, arguments) -> {
+            try {
+                return (Object) invoker.invokeExact(object, arguments);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        };
+    }
+
+    /**
+     * @return A function calling a public instance method without arguments,
+     * or null if the method can not be linked from this class
+     */
+    private static Function spin(Method method, MethodHandle handle) {
+        Class<?> type = method.getDeclaringClass();
+        if (method.getParameterCount() != 0 || void.class == method.getReturnType()
+                || Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())
+                || !Modifier.isPublic(type.getModifiers()) || !isVisible(type)) {
+            return null;
+        }
+
+        try {
+            MethodType instantiated = MethodType.methodType(method.getReturnType(), type).wrap();
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle, instantiated);
+            return (Function) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * The spun class is defined next to this one, so it only links against
+     * the classes this one sees.
+     */
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, AccessorFactory.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+/**
+ * The properties of a {@link TemplateModel}, read without reflection.
+ *
+ * Tables are generated at build time next to their model, whose name they
+ * take, and registered as services. A property is resolved like
+ * ClassUtils.findMember does, from the public getter, boolean getter, "has"
+ * method, method without arguments and field of that name.
+ */
+public interface AccessorTable {
+
+    /**
+     * @return The class whose properties are read
+     */
+    Class<?> getType();
+
+    /**
+     * @param name The name of the property
+     * @return The accessor, or null if the table does not know the property
+     */
+    Accessor get(String name);
+}
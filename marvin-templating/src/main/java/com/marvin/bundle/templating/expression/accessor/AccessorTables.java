@@ -0,0 +1,80 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The accessor tables generated next to the models, found by name with the
+ * class loader of each model.
+ */
+public class AccessorTables {
+
+    /**
+     * The suffix of the simple name of a table, the binary name of its
+     * model with nested classes joined by underscores.
+     */
+    public static final String SUFFIX = "_AccessorTable";
+
+    /**
+     * Tables by class of model, held by the classes themselves so that a
+     * class loader is not kept alive once its models are gone.
+     */
+    private static final ClassValue<AccessorTable> BY_TYPE = new ClassValue<AccessorTable>() {
+        @Override
+        protected AccessorTable computeValue(Class<?> type) {
+            if (!type.isAnnotationPresent(TemplateModel.class) || null == type.getClassLoader()) {
+                return null;
+            }
+            return load(type);
+        }
+    };
+
+    private AccessorTables() {
+    }
+
+    /**
+     * @param type The class of the model
+     * @param name The name of the property
+     * @return The accessor of the property, or null if the class has no table
+     * or the table does not know it
+     */
+    public static Accessor find(Class<?> type, String name) {
+        AccessorTable table = BY_TYPE.get(type);
+        if (null == table) {
+            return null;
+        }
+
+        Accessor accessor = table.get(name);
+        if (null == accessor) {
+            return null;
+        }
+        return (object, arguments) -> {
+            try {
+                return accessor.access(object, arguments);
+            } catch (RuntimeException | Error e) {
+                throw new InvocationTargetException(e);
+            }
+        };
+    }
+
+    /**
+     * @return The table generated for the model, or null if it was not
+     * generated
+     */
+    private static AccessorTable load(Class<?> type) {
+        String name = type.getName();
+        int dot = name.lastIndexOf('.');
+        String table = name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + SUFFIX;
+
+        try {
+            Class<?> tableType = Class.forName(table, true, type.getClassLoader());
+            if (!AccessorTable.class.isAssignableFrom(tableType)) {
+                return null;
+            }
+
+            AccessorTable instance = (AccessorTable) tableType.getDeclaredConstructor().newInstance();
+            return instance.getType() == type ? instance : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
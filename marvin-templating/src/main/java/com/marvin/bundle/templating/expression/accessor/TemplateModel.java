@@ -0,0 +1,19 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose attributes are read by templates.
+ *
+ * The marvin-templating-processor generates an {@link AccessorTable} for
+ * each marked class, which attribute expressions use instead of reflection.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TemplateModel {
+}
@@ -0,0 +1,31 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The arguments of a call, positional ones being named after their index.
+ */
+public class ArgumentsExpression implements Expression<Map<String, Object>> {
+
+    private final Map<String, Expression> arguments;
+
+    public ArgumentsExpression(Map<String, Expression> arguments) {
+        this.arguments = arguments;
+    }
+
+    public Map<String, Expression> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Map<String, Object> evaluate(Context context) {
+        Map<String, Object> result = new HashMap<>();
+        arguments.forEach((name, expression) -> {
+            result.put(name, expression.evaluate(context));
+        });
+        return result;
+    }
+}
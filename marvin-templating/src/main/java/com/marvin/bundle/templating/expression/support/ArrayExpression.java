@@ -0,0 +1,26 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ArrayExpression implements Expression<List> {
+
+    private final List<Expression> elements;
+
+    public ArrayExpression(List<Expression> elements) {
+        this.elements = elements;
+    }
+
+    public List<Expression> getElements() {
+        return elements;
+    }
+
+    @Override
+    public List evaluate(Context context) {
+        return elements.stream()
+                .map((expr) -> expr == null ? null : expr.evaluate(context))
+                .collect(Collectors.toList());
+    }
+}
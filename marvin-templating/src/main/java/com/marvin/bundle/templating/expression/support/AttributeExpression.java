@@ -0,0 +1,115 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.expression.accessor.Accessor;
+import com.marvin.bundle.templating.expression.accessor.AccessorCache;
+import com.marvin.component.util.ReflectionUtils;
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An attribute of an object, such as "user.name", "user['name']" or
+ * "user.name()".
+ */
+public class AttributeExpression implements Expression<Object> {
+
+    private final Expression object;
+
+    private final Expression<String> attributeName;
+
+    /**
+     * The arguments of a method call, null when the attribute is not called.
+     */
+    private final Expression<Map<String, Object>> arguments;
+
+    /**
+     * The accessors this expression resolved so far.
+     */
+    private final AccessorCache accessors = new AccessorCache();
+
+    public AttributeExpression(Expression object, Expression<String> attributeName, Expression<Map<String, Object>> arguments) {
+        this.object = object;
+        this.attributeName = attributeName;
+        this.arguments = arguments;
+    }
+
+    public Expression getObject() {
+        return object;
+    }
+
+    public Expression<String> getAttributeName() {
+        return attributeName;
+    }
+
+    public Expression<Map<String, Object>> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        Object object = this.object.evaluate(context);
+        String attributeName = this.attributeName.evaluate(context);
+        Map<String, Object> args = new HashMap<>();
+        Object result = null;
+        Object[] argumentValues = new Object[0];
+        if (null != arguments) {
+            args = arguments.evaluate(context);
+            argumentValues = args.values().toArray();
+        }
+
+        Accessor accessor = null;
+        if (object != null) {
+            if (null != arguments) {
+                 // first we check maps
+                if (object instanceof Map && ((Map<?, ?>) object).containsKey(attributeName)) {
+                    return ((Map<?, ?>) object).get(attributeName);
+                }
+                try {
+
+                    // then we check arrays
+                    if (object.getClass().isArray()) {
+                        int index = Integer.parseInt(attributeName);
+                        int length = Array.getLength(object);
+                        if (index < 0 || index >= length) {
+                            return null;
+                        }
+                        return Array.get(object, index);
+                    }
+
+                    // then lists
+                    if (object instanceof List) {
+                        List<Object> list = (List<Object>) object;
+
+                        int index = Integer.parseInt(attributeName);
+                        int length = list.size();
+
+                        if (index < 0 || index >= length) {
+                            return null;
+                        }
+
+                        return list.get(index);
+                    }
+                } catch (NumberFormatException ex) {
+                    // do nothing
+                }
+            }
+
+            Class<?>[] argumentTypes = ReflectionUtils.resolveArgumentsTypes(argumentValues);
+            Class<?> clazz = object.getClass();
+
+            accessor = this.accessors.find(clazz, attributeName, argumentTypes);
+        }
+
+        if (object != null && accessor != null) {
+            try {
+                result = accessor.access(object, argumentValues);
+            } catch (ReflectiveOperationException | IllegalArgumentException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return result;
+    }
+}
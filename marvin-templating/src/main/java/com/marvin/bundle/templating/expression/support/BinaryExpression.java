@@ -0,0 +1,47 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import java.util.function.BiFunction;
+
+public class BinaryExpression implements Expression<Object> {
+
+    /**
+     * The symbol of the operator, null when the function was given directly.
+     */
+    private final String operator;
+
+    private final Expression left;
+
+    private final Expression right;
+
+    private final BiFunction function;
+
+    public BinaryExpression(String operator, Expression left, Expression right, BiFunction function) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.function = function;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public BiFunction getFunction() {
+        return function;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return function.apply(left.evaluate(context), right.evaluate(context));
+    }
+}
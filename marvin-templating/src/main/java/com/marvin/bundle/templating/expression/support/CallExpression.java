@@ -0,0 +1,47 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.Directive;
+import java.util.Map;
+
+/**
+ * A call of a directive, such as "range(1, 10)".
+ */
+public class CallExpression implements Expression<Object> {
+
+    private final String name;
+
+    private final Directive directive;
+
+    private final Expression<Map<String, Object>> arguments;
+
+    /**
+     * The arguments linked to the declared parameters, evaluated on each call.
+     */
+    private final Expression<Map<String, Object>> frame;
+
+    public CallExpression(String name, Directive directive, Expression<Map<String, Object>> arguments) {
+        this.name = name;
+        this.directive = directive;
+        this.arguments = arguments;
+        this.frame = FrameExpression.link(directive.getParameters(), arguments);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Directive getDirective() {
+        return directive;
+    }
+
+    public Expression<Map<String, Object>> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return directive.apply(frame.evaluate(context));
+    }
+}
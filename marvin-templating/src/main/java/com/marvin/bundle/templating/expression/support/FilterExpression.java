@@ -0,0 +1,51 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.Filter;
+import java.util.Map;
+
+public class FilterExpression implements Expression<Object> {
+
+    private final String name;
+
+    private final Filter filter;
+
+    private final Expression value;
+
+    private final Expression<Map<String, Object>> arguments;
+
+    /**
+     * The arguments linked to the declared parameters, evaluated on each call.
+     */
+    private final Expression<Map<String, Object>> frame;
+
+    public FilterExpression(String name, Filter filter, Expression value, Expression<Map<String, Object>> arguments) {
+        this.name = name;
+        this.filter = filter;
+        this.value = value;
+        this.arguments = arguments;
+        this.frame = FrameExpression.link(filter.getParameters(), arguments);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    public Expression<Map<String, Object>> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return filter.apply(value.evaluate(context), frame.evaluate(context));
+    }
+}
@@ -0,0 +1,72 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.extention.Test;
+import java.util.Map;
+
+/**
+ * The name following a binary operator, such as "upper" in "name | upper" or
+ * "empty" in "names is empty", applied as a filter or else as a test.
+ */
+public class FilterOrTestExpression implements Expression<Object> {
+
+    private final String name;
+
+    /**
+     * The filter of that name, null when it names a test.
+     */
+    private final Filter filter;
+
+    /**
+     * The test of that name, null when it names a filter.
+     */
+    private final Test test;
+
+    private final Expression value;
+
+    private final Expression<Map<String, Object>> arguments;
+
+    /**
+     * The arguments linked to the declared parameters, evaluated on each call.
+     */
+    private final Expression<Map<String, Object>> frame;
+
+    public FilterOrTestExpression(String name, Filter filter, Test test, Expression value, Expression<Map<String, Object>> arguments) {
+        this.name = name;
+        this.filter = filter;
+        this.test = test;
+        this.value = value;
+        this.arguments = arguments;
+        this.frame = null == filter ? arguments : FrameExpression.link(filter.getParameters(), arguments);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public Test getTest() {
+        return test;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    public Expression<Map<String, Object>> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        if (null != filter) {
+            return filter.apply(value.evaluate(context), frame.evaluate(context));
+        }
+        return test.apply(value.evaluate(context), frame.evaluate(context));
+    }
+}
@@ -0,0 +1,69 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.ArgumentFrame;
+import com.marvin.bundle.templating.extention.Parameters;
+import java.util.Map;
+
+/**
+ * The arguments of a call linked to the parameters of its filter or
+ * directive, evaluated into an {@link ArgumentFrame}.
+ */
+public class FrameExpression implements Expression<Map<String, Object>> {
+
+    private final Parameters parameters;
+
+    /**
+     * The argument given for each parameter, null when the default value is
+     * used.
+     */
+    private final Expression[] slots;
+
+    public FrameExpression(Parameters parameters, Expression[] slots) {
+        this.parameters = parameters;
+        this.slots = slots;
+    }
+
+    /**
+     * Maps each argument to the slot of its parameter, positional ones by
+     * index and named ones by name.
+     *
+     * @param parameters The declared parameters, may be null
+     * @param arguments The arguments of the call
+     * @return The linked arguments, or the given ones if some do not match a
+     * parameter
+     */
+    public static Expression<Map<String, Object>> link(Parameters parameters, Expression<Map<String, Object>> arguments) {
+        if (null == parameters || !(arguments instanceof ArgumentsExpression)) {
+            return arguments;
+        }
+
+        Map<String, Expression> given = ((ArgumentsExpression) arguments).getArguments();
+        Expression[] slots = new Expression[parameters.size()];
+        int used = 0;
+        for (int i = 0; i < slots.length; i++) {
+            String name = parameters.getName(i);
+            String index = String.valueOf(i);
+            if (given.containsKey(name)) {
+                slots[i] = given.get(name);
+                used++;
+            } else if (given.containsKey(index)) {
+                slots[i] = given.get(index);
+                used++;
+            }
+        }
+
+        // extra arguments are only passed along by the map
+        return used == given.size() ? new FrameExpression(parameters, slots) : arguments;
+    }
+
+    @Override
+    public Map<String, Object> evaluate(Context context) {
+        Object[] values = new Object[this.slots.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = null == this.slots[i] ? this.parameters.getDefault(i) : this.slots[i].evaluate(context);
+        }
+        return new ArgumentFrame(this.parameters, values);
+    }
+}
@@ -0,0 +1,27 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+
+/**
+ * A value known while parsing, such as a string, a boolean or null.
+ *
+ * @param <T> The type of the value
+ */
+public class LiteralExpression<T> implements Expression<T> {
+
+    private final T value;
+
+    public LiteralExpression(T value) {
+        this.value = value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public T evaluate(Context context) {
+        return value;
+    }
+}
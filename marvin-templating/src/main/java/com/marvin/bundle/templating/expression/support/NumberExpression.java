@@ -0,0 +1,38 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+
+/**
+ * A number as written in the template, a double when it has a decimal
+ * separator and a long otherwise.
+ *
+ * @param <T> The type of the number
+ */
+public class NumberExpression<T extends Number> implements Expression<T> {
+
+    private final String value;
+
+    private final boolean decimal;
+
+    public NumberExpression(String value, boolean decimal) {
+        this.value = value;
+        this.decimal = decimal;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isDecimal() {
+        return decimal;
+    }
+
+    @Override
+    public T evaluate(Context context) {
+        if (decimal) {
+            return (T) Double.valueOf(value);
+        }
+        return (T) Long.valueOf(value);
+    }
+}
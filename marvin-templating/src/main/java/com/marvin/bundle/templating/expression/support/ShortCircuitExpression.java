@@ -0,0 +1,33 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A binary expression skipping its right operand when the left one decides
+ * the result.
+ */
+public class ShortCircuitExpression extends BinaryExpression {
+
+    private final Predicate<Object> decisive;
+
+    public ShortCircuitExpression(String operator, Expression left, Expression right, BiFunction function, Predicate<Object> decisive) {
+        super(operator, left, right, function);
+        this.decisive = decisive;
+    }
+
+    public Predicate<Object> getDecisive() {
+        return decisive;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        Object left = getLeft().evaluate(context);
+        if (decisive.test(left)) {
+            return getFunction().apply(left, null);
+        }
+        return getFunction().apply(left, getRight().evaluate(context));
+    }
+}
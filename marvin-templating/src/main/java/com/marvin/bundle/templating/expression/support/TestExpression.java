@@ -0,0 +1,45 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.extention.Test;
+import java.util.Map;
+
+public class TestExpression implements Expression<Object> {
+
+    private final String name;
+
+    private final Test test;
+
+    private final Expression value;
+
+    private final Expression<Map<String, Object>> arguments;
+
+    public TestExpression(String name, Test test, Expression value, Expression<Map<String, Object>> arguments) {
+        this.name = name;
+        this.test = test;
+        this.value = value;
+        this.arguments = arguments;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Test getTest() {
+        return test;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
+    public Expression<Map<String, Object>> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return test.apply(value.evaluate(context), arguments.evaluate(context));
+    }
+}
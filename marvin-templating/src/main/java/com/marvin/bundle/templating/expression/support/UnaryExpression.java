@@ -0,0 +1,40 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+import java.util.function.Function;
+
+public class UnaryExpression implements Expression<Object> {
+
+    /**
+     * The symbol of the operator, null when the function was given directly.
+     */
+    private final String operator;
+
+    private final Expression operand;
+
+    private final Function function;
+
+    public UnaryExpression(String operator, Expression operand, Function function) {
+        this.operator = operator;
+        this.operand = operand;
+        this.function = function;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public Expression getOperand() {
+        return operand;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return function.apply(operand.evaluate(context));
+    }
+}
@@ -0,0 +1,22 @@
+package com.marvin.bundle.templating.expression.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.expression.Expression;
+
+public class VariableExpression implements Expression<Object> {
+
+    private final String name;
+
+    public VariableExpression(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object evaluate(Context context) {
+        return context.evaluate(name);
+    }
+}
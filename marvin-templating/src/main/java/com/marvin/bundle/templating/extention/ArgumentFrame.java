@@ -0,0 +1,91 @@
+package com.marvin.bundle.templating.extention;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The arguments of a call, one slot per declared parameter.
+ *
+ * Filters and directives still read them by name, but no map is built for
+ * each call. Only declared parameters can be set.
+ */
+public class ArgumentFrame extends AbstractMap<String, Object> {
+
+    private final Parameters parameters;
+
+    private final Object[] values;
+
+    /**
+     * @param values The value of each parameter, in declaration order
+     */
+    public ArgumentFrame(Parameters parameters, Object[] values) {
+        this.parameters = parameters;
+        this.values = values;
+    }
+
+    public Parameters getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && this.parameters.indexOf((String) key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = key instanceof String ? this.parameters.indexOf((String) key) : -1;
+        return index < 0 ? null : this.values[index];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = this.parameters.indexOf(key);
+        if (index < 0) {
+            throw new UnsupportedOperationException(String.format("No parameter %s is declared", key));
+        }
+
+        Object previous = this.values[index];
+        this.values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.index < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = this.index++;
+                        return new SimpleImmutableEntry<>(parameters.getName(current), values[current]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
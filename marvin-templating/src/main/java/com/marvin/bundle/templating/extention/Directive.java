@@ -15,35 +15,27 @@ public interface Directive<R extends Object> {
     
     <R> R apply(Map<String, Object> args);
     
+    /**
+     * @return The declared parameters, null when the arguments are passed as
+     * they are given
+     */
+    default Parameters getParameters() {
+        return null;
+    }
+    
     static Directive bindDefaults(Directive base, Map<String, Object> defaults) {
-        return Directive.map(base, args -> {
-                int argIndex = 0;
-                
-                for (Map.Entry<String, Object> entry : defaults.entrySet()) {
-                    String key = entry.getKey();
-                    Object value = entry.getValue();
-                    String index = String.valueOf(argIndex);
-                    
-                    if(!args.containsKey(key)) {
-                        
-                        if (!args.containsKey(index)) {
-                            args.put(index, value);
-                        }
-
-                        if (args.containsKey(index)) {
-                            args.put(key, args.get(index));
-                            args.remove(index);
-                        }
-                    }
-                    
-                    if (args.containsKey(key)) {
-                        args.put(key, args.getOrDefault(key, value));
-                    }
+        Parameters parameters = new Parameters(defaults);
+        return new Directive() {
+            @Override
+            public Object apply(Map args) {
+                return base.apply(parameters.bind(args));
+            }
 
-                    argIndex++;
-                }
-                return args;
-            });
+            @Override
+            public Parameters getParameters() {
+                return parameters;
+            }
+        };
     }
     
     static Directive map(Directive base, Function<Map<String, Object>, Map<String, Object>> function) {
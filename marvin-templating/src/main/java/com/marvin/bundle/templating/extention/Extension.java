@@ -3,6 +3,7 @@ package com.marvin.bundle.templating.extention;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import com.marvin.bundle.templating.Renderer;
 import com.marvin.bundle.templating.node.NodeParser;
 import com.marvin.bundle.templating.node.NodeVisitorFactory;
@@ -29,6 +30,14 @@ public interface Extension {
         return new ArrayList<>();
     }
     
+    /**
+     * @return The names of the filters whose result only depends on their
+     * input and arguments, applied while parsing when both are constant
+     */
+    default Set<String> getPureFilters() {
+        return Collections.EMPTY_SET;
+    }
+    
     default Map<String, NodeParser> getNodeParsers() {
         return Collections.EMPTY_MAP;
     }
@@ -11,35 +11,28 @@ public interface Filter<T, R> {
     
     R apply(T input, Map<String, Object> args);
     
+    /**
+     * @return The declared parameters, null when the arguments are passed as
+     * they are given
+     */
+    default Parameters getParameters() {
+        return null;
+    }
+    
     default Filter bindDefaults(Map<String, Object> defaults) {
-        return Filter.map(this, args -> {
-                int argIndex = 0;
-                
-                for (Map.Entry<String, Object> entry : defaults.entrySet()) {
-                    String key = entry.getKey();
-                    Object value = entry.getValue();
-                    String index = String.valueOf(argIndex);
-                    
-                    if(!args.containsKey(key)) {
-                        
-                        if (!args.containsKey(index)) {
-                            args.put(index, value);
-                        }
-
-                        if (args.containsKey(index)) {
-                            args.put(key, args.get(index));
-                            args.remove(index);
-                        }
-                    }
-                    
-                    if (args.containsKey(key)) {
-                        args.put(key, args.getOrDefault(key, value));
-                    }
+        Filter base = this;
+        Parameters parameters = new Parameters(defaults);
+        return new Filter() {
+            @Override
+            public Object apply(Object input, Map args) {
+                return base.apply(input, parameters.bind(args));
+            }
 
-                    argIndex++;
-                }
-                return args;
-            });
+            @Override
+            public Parameters getParameters() {
+                return parameters;
+            }
+        };
     }
     
     static Filter fromFunction(Function function) {
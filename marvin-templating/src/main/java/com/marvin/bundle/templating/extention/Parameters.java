@@ -0,0 +1,77 @@
+package com.marvin.bundle.templating.extention;
+
+import java.util.Map;
+
+/**
+ * The parameters declared by a filter or a directive, in order, with their
+ * default values.
+ */
+public class Parameters {
+
+    private final String[] names;
+
+    private final Object[] defaults;
+
+    public Parameters(Map<String, Object> defaults) {
+        this.names = defaults.keySet().toArray(new String[defaults.size()]);
+        this.defaults = defaults.values().toArray();
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    public Object getDefault(int index) {
+        return this.defaults[index];
+    }
+
+    /**
+     * @return The index of the parameter, or -1 if none is declared with
+     * that name
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Names the positional arguments after their parameter, and adds the
+     * default value of the missing ones.
+     *
+     * @param args The arguments of a call, a frame of these parameters is
+     * returned as it is
+     * @return The arguments, by parameter name
+     */
+    public Map<String, Object> bind(Map<String, Object> args) {
+        if (args instanceof ArgumentFrame && ((ArgumentFrame) args).getParameters() == this) {
+            return args;
+        }
+
+        for (int argIndex = 0; argIndex < this.names.length; argIndex++) {
+            String key = this.names[argIndex];
+            Object value = this.defaults[argIndex];
+            String index = String.valueOf(argIndex);
+
+            if (!args.containsKey(key)) {
+
+                if (!args.containsKey(index)) {
+                    args.put(index, value);
+                }
+
+                if (args.containsKey(index)) {
+                    args.put(key, args.get(index));
+                    args.remove(index);
+                }
+            }
+        }
+        return args;
+    }
+}
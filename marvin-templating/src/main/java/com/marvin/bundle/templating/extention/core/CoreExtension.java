@@ -10,14 +10,18 @@ import com.marvin.bundle.templating.node.NodeParser;
 import com.marvin.bundle.templating.node.NodeVisitorFactory;
 import com.marvin.bundle.templating.operator.Associativity;
 import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.FilterOrTestOperator;
+import com.marvin.bundle.templating.operator.ShortCircuitOperator;
 import com.marvin.bundle.templating.operator.UnaryOperator;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class CoreExtension implements Extension {
 
@@ -94,32 +98,39 @@ public class CoreExtension implements Extension {
         return filters;
     }
 
+    @Override
+    public Set<String> getPureFilters() {
+        // date depends on the current time, sort, rsort and merge on mutable collections
+        return new HashSet<>(Arrays.asList("abbreviate", "abs", "capitalize", "upper", "lower", "default",
+                "first", "join", "last", "numberformat", "slice", "title", "trim", "urlencode", "length", "replace"));
+    }
+
     @Override
     public Map<String, BinaryOperator> getBinaryOperators() {
         Map<String, BinaryOperator> operators = new LinkedHashMap<>();
-        operators.put("or", new BinaryOperator(10, ObjectUtils::or, Associativity.LEFT));
-        operators.put("and", new BinaryOperator(15, ObjectUtils::and, Associativity.LEFT));
+        operators.put("or", new ShortCircuitOperator(10, ObjectUtils::or, Associativity.LEFT, true, left -> ObjectUtils.equals(left, Boolean.TRUE)));
+        operators.put("and", new ShortCircuitOperator(15, ObjectUtils::and, Associativity.LEFT, true, left -> !ObjectUtils.equals(left, Boolean.TRUE)));
         
-        operators.put("is not", new BinaryOperator(20, ObjectUtils::negative, Associativity.LEFT));
-        operators.put("is", new BinaryOperator(20, ObjectUtils::test, Associativity.LEFT));
+        operators.put("is not", new FilterOrTestOperator(20, ObjectUtils::negative, Associativity.LEFT, true));
+        operators.put("is", new FilterOrTestOperator(20, ObjectUtils::test, Associativity.LEFT, true));
         
-        operators.put("+", new BinaryOperator(40, ObjectUtils::add, Associativity.RIGHT));
-        operators.put("-", new BinaryOperator(40, ObjectUtils::subtract, Associativity.RIGHT));
+        operators.put("+", new BinaryOperator(40, ObjectUtils::add, Associativity.RIGHT, true));
+        operators.put("-", new BinaryOperator(40, ObjectUtils::subtract, Associativity.RIGHT, true));
         
-        operators.put("%", new BinaryOperator(60, ObjectUtils::mod, Associativity.RIGHT));
-        operators.put("/", new BinaryOperator(60, ObjectUtils::divide, Associativity.RIGHT));
-        operators.put("*", new BinaryOperator(60, ObjectUtils::multiply, Associativity.RIGHT));
+        operators.put("%", new BinaryOperator(60, ObjectUtils::mod, Associativity.RIGHT, true));
+        operators.put("/", new BinaryOperator(60, ObjectUtils::divide, Associativity.RIGHT, true));
+        operators.put("*", new BinaryOperator(60, ObjectUtils::multiply, Associativity.RIGHT, true));
         
-        operators.put(">=", new BinaryOperator(30, ObjectUtils::gte, Associativity.RIGHT));
-        operators.put(">", new BinaryOperator(30, ObjectUtils::gt, Associativity.RIGHT));
-        operators.put("<=", new BinaryOperator(30, ObjectUtils::lte, Associativity.RIGHT));
-        operators.put("<", new BinaryOperator(30, ObjectUtils::lt, Associativity.RIGHT));
-        operators.put("==", new BinaryOperator(30, ObjectUtils::equals, Associativity.RIGHT));
-        operators.put("equals", new BinaryOperator(30, ObjectUtils::equals, Associativity.RIGHT));
+        operators.put(">=", new BinaryOperator(30, ObjectUtils::gte, Associativity.RIGHT, true));
+        operators.put(">", new BinaryOperator(30, ObjectUtils::gt, Associativity.RIGHT, true));
+        operators.put("<=", new BinaryOperator(30, ObjectUtils::lte, Associativity.RIGHT, true));
+        operators.put("<", new BinaryOperator(30, ObjectUtils::lt, Associativity.RIGHT, true));
+        operators.put("==", new BinaryOperator(30, ObjectUtils::equals, Associativity.RIGHT, true));
+        operators.put("equals", new BinaryOperator(30, ObjectUtils::equals, Associativity.RIGHT, true));
         
-        operators.put("|", new BinaryOperator(100, ObjectUtils::second, Associativity.LEFT));
-        operators.put("~", new BinaryOperator(110, ObjectUtils::concatenate, Associativity.LEFT));
-        operators.put("..", new BinaryOperator(120, ObjectUtils::enumerate, Associativity.LEFT));
+        operators.put("|", new FilterOrTestOperator(100, ObjectUtils::second, Associativity.LEFT, true));
+        operators.put("~", new BinaryOperator(110, ObjectUtils::concatenate, Associativity.LEFT, true));
+        operators.put("..", new BinaryOperator(120, ObjectUtils::enumerate, Associativity.LEFT, true));
 
         return operators;
     }
@@ -127,9 +138,9 @@ public class CoreExtension implements Extension {
     @Override
     public Map<String, UnaryOperator> getUnaryOperators() {
         Map<String, UnaryOperator> operators = new HashMap<>();
-        operators.put("not", new UnaryOperator(5, ObjectUtils::not));
-        operators.put("+", new UnaryOperator(500, ObjectUtils::unaryPlus));
-        operators.put("-", new UnaryOperator(500, ObjectUtils::unaryMinus));
+        operators.put("not", new UnaryOperator(5, ObjectUtils::not, true));
+        operators.put("+", new UnaryOperator(500, ObjectUtils::unaryPlus, true));
+        operators.put("-", new UnaryOperator(500, ObjectUtils::unaryMinus, true));
         return operators;
     }
 }
@@ -9,8 +9,8 @@ import com.marvin.bundle.templating.extention.core.node.ImportNode;
 import com.marvin.bundle.templating.extention.core.node.SetNode;
 import com.marvin.bundle.templating.node.support.BodyNode;
 import com.marvin.bundle.templating.node.NodeParser;
-import com.marvin.bundle.templating.node.NodeParsers;
 import com.marvin.bundle.templating.token.Token;
+import com.marvin.bundle.templating.token.TokenStream;
 import com.marvin.bundle.templating.token.TokenType;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -32,7 +32,7 @@ public interface CoreNodeParsers {
             
             stream.expect(TokenType.EXECUTE_CLOSE);
             
-            NodeParser<BodyNode> bodyParser = NodeParsers.body();
+            NodeParser<BodyNode> bodyParser = engine.getBodyNodeParser();
             
             BodyNode body = bodyParser.parse(stream, parser, engine, decideIfFork);
             bodies.put(expression, body);
@@ -87,7 +87,7 @@ public interface CoreNodeParsers {
 
             stream.expect(TokenType.EXECUTE_CLOSE);
 
-            NodeParser<BodyNode> bodyParser = NodeParsers.body();
+            NodeParser<BodyNode> bodyParser = engine.getBodyNodeParser();
             BodyNode body = bodyParser.parse(stream, parser, engine, decideElseFork);
 
             BodyNode elseBody = null;
@@ -111,11 +111,12 @@ public interface CoreNodeParsers {
         return (stream, parser, engine, endCondition) -> {
             // skip the 'extends' token
             stream.next();
-
+            
+            String path = staticPath(stream);
             Expression parentTemplateExpression = parser.parse(stream);
 
             stream.expect(TokenType.EXECUTE_CLOSE);
-            return new ExtendsNode(parentTemplateExpression);
+            return new ExtendsNode(parentTemplateExpression, path);
         };
     }
     
@@ -123,14 +124,27 @@ public interface CoreNodeParsers {
         return (stream, parser, engine, endCondition) -> {
             // skip over the 'import' token
             stream.next();
+            String path = staticPath(stream);
             Expression importExpression = parser.parse(stream);
 
             stream.expect(TokenType.EXECUTE_CLOSE);
 
-            return new ImportNode(importExpression);
+            return new ImportNode(importExpression, path);
         };
     }
     
+    /**
+     * @return The path of a template given as a lone string, or null if it
+     * is only known while rendering
+     */
+    static String staticPath(TokenStream stream) {
+        Token current = stream.current();
+        if (current.isA(TokenType.STRING) && stream.peek().isA(TokenType.EXECUTE_CLOSE)) {
+            return current.getValue();
+        }
+        return null;
+    }
+    
     static NodeParser setNodeParser() {
         return (stream, parser, engine, endCondition) -> {
             // skip the 'extends' token
@@ -169,7 +183,7 @@ public interface CoreNodeParsers {
 
             stream.expect(TokenType.EXECUTE_CLOSE);
 
-            NodeParser<BodyNode> bodyParser = NodeParsers.body();
+            NodeParser<BodyNode> bodyParser = engine.getBodyNodeParser();
             // now we parse the block body
             BodyNode blockBody = bodyParser.parse(stream, parser, engine, (Token token1) -> token1.isA(TokenType.NAME, "endblock"));
 
@@ -2,6 +2,8 @@ package com.marvin.bundle.templating.extention.core;
 
 import com.marvin.bundle.templating.Template;
 import com.marvin.bundle.templating.extention.core.node.BlockNode;
+import com.marvin.bundle.templating.extention.core.node.ExtendsNode;
+import com.marvin.bundle.templating.extention.core.node.ImportNode;
 import com.marvin.bundle.templating.node.NodeVisitor;
 import com.marvin.bundle.templating.node.NodeVisitorFactory;
 
@@ -14,6 +16,14 @@ public class CoreNodeVisitorFactory implements NodeVisitorFactory {
                 BlockNode block = (BlockNode) node;
                 template.registerBlock(block.getName(), block.getBody());
             }
+            
+            if (node instanceof ExtendsNode && null != ((ExtendsNode) node).getParentPath()) {
+                template.registerDependency(((ExtendsNode) node).getParentPath());
+            }
+            
+            if (node instanceof ImportNode && null != ((ImportNode) node).getImportPath()) {
+                template.registerDependency(((ImportNode) node).getImportPath());
+            }
         };
     }
 }
@@ -11,8 +11,26 @@ public class ExtendsNode implements Node {
     
     private Expression<String> parentExpression;
     
+    /**
+     * The path of the template, when it is known while parsing.
+     */
+    private String path;
+    
     public ExtendsNode(Expression<String> parentExpression) {
+        this(parentExpression, null);
+    }
+    
+    public ExtendsNode(Expression<String> parentExpression, String path) {
         this.parentExpression = parentExpression;
+        this.path = path;
+    }
+    
+    public String getParentPath() {
+        return path;
+    }
+
+    public Expression<String> getParentExpression() {
+        return parentExpression;
     }
     
     @Override
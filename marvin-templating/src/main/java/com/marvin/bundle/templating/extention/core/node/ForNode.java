@@ -26,64 +26,124 @@ public class ForNode implements Node {
         this.elseBody = elseBody;
     }
 
+    public Expression<String> getVarExpression() {
+        return varExpression;
+    }
+
+    public Expression<Iterable> getIterableExpression() {
+        return iterableExpression;
+    }
+
+    public BodyNode getBody() {
+        return body;
+    }
+
+    public BodyNode getElseBody() {
+        return elseBody;
+    }
+
     @Override
     public void render(Context context, Renderer renderer) {
         Object iterableEvaluation = iterableExpression.evaluate(context);
-        String varName = this.varExpression.evaluate(context);
-        Iterable<?> iterable;
+        Iterator<?> iterator = iterator(iterableEvaluation);
 
-        if (iterableEvaluation == null) {
+        if (iterator == null) {
             return;
         }
 
-        iterable = toIterable(iterableEvaluation);
+        if (iterator.hasNext()) {
+            Loop loop = new Loop(context, this.varExpression.evaluate(context), getIteratorSize(iterableEvaluation));
+            while (loop.next(iterator)) {
+                body.render(context, renderer);
+            }
+            loop.end();
+        } else if (elseBody != null) {
+            elseBody.render(context, renderer);
+        }
+    }
+    
+    /**
+     * @param iterableEvaluation The value iterated over
+     * @return An iterator over the value, or null if it can not be iterated
+     */
+    public static Iterator<?> iterator(Object iterableEvaluation) {
+        if (iterableEvaluation == null) {
+            return null;
+        }
+
+        Iterable<?> iterable = toIterable(iterableEvaluation);
 
         if (iterable == null) {
             String msg = String.format("Not an iterable object. Value = [%s].", iterableEvaluation);
             System.err.println(msg);
-            return;
+            return null;
         }
 
-        Iterator<?> iterator = iterable.iterator();
-
-        if (iterator.hasNext()) {
-
-            int length = getIteratorSize(iterableEvaluation);
-            int index = 0;
-
-            Map<String, Object> loop = new HashMap<>();
-            while (iterator.hasNext()) {
-                if (index == 0) {
-                    loop.put("first", index == 0);
-                    loop.put("last", index == length - 1);
-                    loop.put("length", length);
-                }else{
-                    // second iteration
-                    if(index == 1){
-                        loop.put("first", false);
-                    }
-                    // last iteration
-                    if(index == length - 1){
-                        loop.put("last", true);
-                    }
+        return iterable.iterator();
+    }
+    
+    /**
+     * The state of a loop, exposed to its body as the "loop" variable.
+     */
+    public static class Loop {
+        
+        private final Context context;
+        
+        private final String varName;
+        
+        private final int length;
+        
+        private final Map<String, Object> loop = new HashMap<>();
+        
+        private int index = 0;
+
+        public Loop(Context context, String varName, int length) {
+            this.context = context;
+            this.varName = varName;
+            this.length = length;
+        }
+        
+        /**
+         * Moves to the next element, setting the variables of the loop.
+         * 
+         * @param iterator The iterator of the loop
+         * @return Whether there was a next element
+         */
+        public boolean next(Iterator<?> iterator) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            
+            if (index == 0) {
+                loop.put("first", index == 0);
+                loop.put("last", index == length - 1);
+                loop.put("length", length);
+            }else{
+                // second iteration
+                if(index == 1){
+                    loop.put("first", false);
+                }
+                // last iteration
+                if(index == length - 1){
+                    loop.put("last", true);
                 }
+            }
 
-                loop.put("revindex", length - index - 1);
-                loop.put("index", index++);
-                
-                context.set("loop", loop);
-                context.set(varName, iterator.next());
+            loop.put("revindex", length - index - 1);
+            loop.put("index", index++);
 
-                body.render(context, renderer);
-            }
+            context.set("loop", loop);
+            context.set(varName, iterator.next());
+            return true;
+        }
+        
+        public void end() {
             context.remove("loop");
             context.remove(varName);
-        } else if (elseBody != null) {
-            elseBody.render(context, renderer);
         }
     }
     
-    private Iterable<Object> toIterable(final Object obj) {
+    private static Iterable<Object> toIterable(final Object obj) {
 
         Iterable<Object> result = null;
 
@@ -128,7 +188,7 @@ public class ForNode implements Node {
         return result;
     }
     
-    private int getIteratorSize(Object iterable) {
+    public static int getIteratorSize(Object iterable) {
         if (iterable == null) {
             return 0;
         }
@@ -23,6 +23,18 @@ public class IfNode implements Node {
         this.elseBody = elseBody;
     }
 
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public Map<Expression<Boolean>, BodyNode> getBodies() {
+        return bodies;
+    }
+
+    public BodyNode getElseBody() {
+        return elseBody;
+    }
+
     @Override
     public void render(Context context, Renderer renderer) {
         boolean satisfied = false;
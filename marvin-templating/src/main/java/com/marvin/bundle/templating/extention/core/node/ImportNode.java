@@ -10,8 +10,26 @@ public class ImportNode implements Node {
     
     private Expression<String> importExpression;
     
+    /**
+     * The path of the template, when it is known while parsing.
+     */
+    private String path;
+    
     public ImportNode(Expression<String> importExpression) {
+        this(importExpression, null);
+    }
+    
+    public ImportNode(Expression<String> importExpression, String path) {
         this.importExpression = importExpression;
+        this.path = path;
+    }
+    
+    public String getImportPath() {
+        return path;
+    }
+
+    public Expression<String> getImportExpression() {
+        return importExpression;
     }
 
     @Override
@@ -19,7 +37,8 @@ public class ImportNode implements Node {
         try {
             Engine engine = context.getEngine();
             String path = this.importExpression.evaluate(context);
-            context.getTemplateHierarchy().get().getImports().add(engine.load(path));
+            // static imports are loaded with the template, cached templates are never modified
+            engine.load(path);
         } catch(Exception exception) {
             exception.printStackTrace();
             throw new RuntimeException();
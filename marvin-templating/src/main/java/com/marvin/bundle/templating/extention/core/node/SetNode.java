@@ -16,6 +16,14 @@ public class SetNode implements Node {
         this.value = value;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public Expression getValue() {
+        return value;
+    }
+
     @Override
     public void render(Context context, Renderer renderer) {
         context.set(name, value.evaluate(context));
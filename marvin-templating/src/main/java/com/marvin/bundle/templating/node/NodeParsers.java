@@ -23,8 +23,10 @@ public interface NodeParsers {
     }
     
     static NodeParser root() {
-        NodeParser<BodyNode> bodyParser = body();
-        
+        return root(body());
+    }
+    
+    static NodeParser root(NodeParser<BodyNode> bodyParser) {
         return (stream, parser, engine, endCondition) -> {
             BodyNode body = bodyParser.parse(stream, parser, engine, endCondition);
             return new RootNode(body);
@@ -7,4 +7,8 @@ public class CommentNode implements Node {
     public CommentNode(String value) {
         this.value = value;
     }
+
+    public String getValue() {
+        return value;
+    }
 }
@@ -13,7 +13,7 @@ public class TextNode implements Node {
     
     @Override
     public void render(Context context, Renderer renderer) {
-        renderer.renderValue(value);
+        renderer.renderText(value);
     }
 
     public String getValue() {
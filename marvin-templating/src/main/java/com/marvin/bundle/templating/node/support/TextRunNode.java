@@ -0,0 +1,37 @@
+package com.marvin.bundle.templating.node.support;
+
+import com.marvin.bundle.templating.Context;
+import com.marvin.bundle.templating.Renderer;
+import java.util.List;
+
+/**
+ * Consecutive static texts, merged into a single node once a template is
+ * parsed and rendered as a single text.
+ */
+public class TextRunNode implements Node {
+
+    private final List<String> values;
+
+    /**
+     * The texts joined once, rendered with a single call.
+     */
+    private final String text;
+
+    public TextRunNode(List<String> values) {
+        this.values = values;
+        this.text = String.join("", values);
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public void render(Context context, Renderer renderer) {
+        renderer.renderText(text);
+    }
+}
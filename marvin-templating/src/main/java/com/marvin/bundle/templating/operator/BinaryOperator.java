@@ -9,9 +9,14 @@ public class BinaryOperator extends Operator {
     protected BiFunction function;
 
     public BinaryOperator(int precedence, BiFunction function, Associativity associativity) {
+        this(precedence, function, associativity, false);
+    }
+
+    public BinaryOperator(int precedence, BiFunction function, Associativity associativity, boolean pure) {
         this.associativity = associativity;
         this.precedence = precedence;
         this.function = function;
+        this.pure = pure;
     }
     
     public Associativity getAssociativity() {
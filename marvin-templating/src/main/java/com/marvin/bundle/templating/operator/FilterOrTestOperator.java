@@ -0,0 +1,21 @@
+package com.marvin.bundle.templating.operator;
+
+import java.util.function.BiFunction;
+
+/**
+ * A binary operator whose right operand names the filter or the test applied
+ * to the left one, like "|" and "is".
+ *
+ * The name is resolved when the template is parsed, it is never read as a
+ * variable.
+ */
+public class FilterOrTestOperator extends BinaryOperator {
+
+    public FilterOrTestOperator(int precedence, BiFunction function, Associativity associativity) {
+        super(precedence, function, associativity);
+    }
+
+    public FilterOrTestOperator(int precedence, BiFunction function, Associativity associativity, boolean pure) {
+        super(precedence, function, associativity, pure);
+    }
+}
@@ -0,0 +1,17 @@
+package com.marvin.bundle.templating.operator;
+
+public abstract class Operator {
+    
+    /**
+     * Whether the result only depends on the operands, in which case the
+     * operator is applied while parsing when they are constant.
+     */
+    protected boolean pure = false;
+    
+    public Operator() {
+    }
+    
+    public boolean isPure() {
+        return pure;
+    }
+}
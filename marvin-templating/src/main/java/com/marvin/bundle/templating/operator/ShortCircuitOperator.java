@@ -0,0 +1,32 @@
+package com.marvin.bundle.templating.operator;
+
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * A binary operator whose right operand is only evaluated when the left one
+ * does not decide the result on its own, like "and" and "or".
+ *
+ * When the left operand decides, the function is applied with a null right
+ * operand.
+ */
+public class ShortCircuitOperator extends BinaryOperator {
+
+    protected Predicate<Object> decisive;
+
+    public ShortCircuitOperator(int precedence, BiFunction function, Associativity associativity, Predicate<Object> decisive) {
+        this(precedence, function, associativity, false, decisive);
+    }
+
+    public ShortCircuitOperator(int precedence, BiFunction function, Associativity associativity, boolean pure, Predicate<Object> decisive) {
+        super(precedence, function, associativity, pure);
+        this.decisive = decisive;
+    }
+
+    /**
+     * @return Whether a left operand decides the result on its own
+     */
+    public Predicate<Object> getDecisive() {
+        return decisive;
+    }
+}
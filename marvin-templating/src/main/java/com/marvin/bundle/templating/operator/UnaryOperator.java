@@ -9,9 +9,14 @@ public class UnaryOperator extends Operator {
     protected Function function;
 
     public UnaryOperator(int precedence, Function function) {
+        this(precedence, function, false);
+    }
+
+    public UnaryOperator(int precedence, Function function, boolean pure) {
         super();
         this.function = function;
         this.precedence = precedence;
+        this.pure = pure;
     }
     
     public int getPrecedence(){
@@ -0,0 +1,175 @@
+package com.marvin.bundle.templating.optimizer;
+
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.expression.support.ArgumentsExpression;
+import com.marvin.bundle.templating.expression.support.ArrayExpression;
+import com.marvin.bundle.templating.expression.support.AttributeExpression;
+import com.marvin.bundle.templating.expression.support.BinaryExpression;
+import com.marvin.bundle.templating.expression.support.CallExpression;
+import com.marvin.bundle.templating.expression.support.FilterExpression;
+import com.marvin.bundle.templating.expression.support.FilterOrTestExpression;
+import com.marvin.bundle.templating.expression.support.LiteralExpression;
+import com.marvin.bundle.templating.expression.support.NumberExpression;
+import com.marvin.bundle.templating.expression.support.ShortCircuitExpression;
+import com.marvin.bundle.templating.expression.support.TestExpression;
+import com.marvin.bundle.templating.expression.support.UnaryExpression;
+import com.marvin.bundle.templating.extention.Filter;
+import com.marvin.bundle.templating.operator.Operator;
+import com.marvin.bundle.templating.operator.BinaryOperator;
+import com.marvin.bundle.templating.operator.UnaryOperator;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Replaces the constant parts of expressions by their value.
+ *
+ * Numbers are parsed once, and pure operators and filters are applied when
+ * their operands are literals. Only immutable values are folded, since a
+ * literal is shared by every render, and anything which fails is left to fail
+ * while rendering.
+ */
+public class ConstantFolder {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class,
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class));
+
+    private final Map<String, UnaryOperator> unaryOperators;
+
+    private final Map<String, BinaryOperator> binaryOperators;
+
+    private final Set<String> pureFilters;
+
+    public ConstantFolder(Map<String, UnaryOperator> unaryOperators, Map<String, BinaryOperator> binaryOperators,
+            Set<String> pureFilters) {
+        this.unaryOperators = unaryOperators;
+        this.binaryOperators = binaryOperators;
+        this.pureFilters = pureFilters;
+    }
+
+    /**
+     * @param expression The expression to fold, may be null
+     * @return The folded expression, or the given one if nothing was folded
+     */
+    public Expression fold(Expression expression) {
+        if (expression instanceof NumberExpression) {
+            return constant(expression, () -> expression.evaluate(null));
+        } else if (expression instanceof UnaryExpression) {
+            return foldUnary((UnaryExpression) expression);
+        } else if (expression instanceof BinaryExpression) {
+            return foldBinary((BinaryExpression) expression);
+        } else if (expression instanceof FilterExpression) {
+            FilterExpression filter = (FilterExpression) expression;
+            Expression value = fold(filter.getValue());
+            Expression<Map<String, Object>> arguments = fold(filter.getArguments());
+            return foldFilter(filter.getName(), filter.getFilter(), value, arguments,
+                    new FilterExpression(filter.getName(), filter.getFilter(), value, arguments));
+        } else if (expression instanceof FilterOrTestExpression) {
+            FilterOrTestExpression filterOrTest = (FilterOrTestExpression) expression;
+            Expression value = fold(filterOrTest.getValue());
+            Expression<Map<String, Object>> arguments = fold(filterOrTest.getArguments());
+            return foldFilter(filterOrTest.getName(), filterOrTest.getFilter(), value, arguments,
+                    new FilterOrTestExpression(filterOrTest.getName(), filterOrTest.getFilter(), filterOrTest.getTest(), value, arguments));
+        } else if (expression instanceof TestExpression) {
+            TestExpression test = (TestExpression) expression;
+            return new TestExpression(test.getName(), test.getTest(), fold(test.getValue()), fold(test.getArguments()));
+        } else if (expression instanceof AttributeExpression) {
+            AttributeExpression attribute = (AttributeExpression) expression;
+            return new AttributeExpression(fold(attribute.getObject()), fold(attribute.getAttributeName()), fold(attribute.getArguments()));
+        } else if (expression instanceof CallExpression) {
+            CallExpression call = (CallExpression) expression;
+            return new CallExpression(call.getName(), call.getDirective(), fold(call.getArguments()));
+        } else if (expression instanceof ArrayExpression) {
+            List<Expression> elements = new ArrayList<>();
+            ((ArrayExpression) expression).getElements().forEach(element -> elements.add(fold(element)));
+            return new ArrayExpression(elements);
+        } else if (expression instanceof ArgumentsExpression) {
+            Map<String, Expression> arguments = new HashMap<>();
+            ((ArgumentsExpression) expression).getArguments().forEach((name, argument) -> arguments.put(name, fold(argument)));
+            return new ArgumentsExpression(arguments);
+        }
+        return expression;
+    }
+
+    private Expression foldUnary(UnaryExpression unary) {
+        Expression operand = fold(unary.getOperand());
+        Expression folded = new UnaryExpression(unary.getOperator(), operand, unary.getFunction());
+
+        if (isPure(this.unaryOperators.get(unary.getOperator()), unary.getFunction()) && isLiteral(operand)) {
+            return constant(folded, () -> folded.evaluate(null));
+        }
+        return folded;
+    }
+
+    private Expression foldBinary(BinaryExpression binary) {
+        Expression left = fold(binary.getLeft());
+        Expression right = fold(binary.getRight());
+        Expression folded = binary instanceof ShortCircuitExpression
+                ? new ShortCircuitExpression(binary.getOperator(), left, right, binary.getFunction(), ((ShortCircuitExpression) binary).getDecisive())
+                : new BinaryExpression(binary.getOperator(), left, right, binary.getFunction());
+
+        if (isPure(this.binaryOperators.get(binary.getOperator()), binary.getFunction()) && isLiteral(left) && (isLiteral(right) || isDecided(binary, left))) {
+            return constant(folded, () -> folded.evaluate(null));
+        }
+        return folded;
+    }
+
+    /**
+     * @return Whether a constant left operand decides the result, in which
+     * case the right one is never evaluated
+     */
+    private boolean isDecided(BinaryExpression binary, Expression left) {
+        return binary instanceof ShortCircuitExpression && ((ShortCircuitExpression) binary).getDecisive().test(left.evaluate(null));
+    }
+
+    private Expression foldFilter(String name, Filter filter, Expression value, Expression<Map<String, Object>> arguments, Expression folded) {
+        if (null == filter || !this.pureFilters.contains(name) || !isLiteral(value) || !isConstant(arguments)) {
+            return folded;
+        }
+        return constant(folded, () -> filter.apply(value.evaluate(null), arguments.evaluate(null)));
+    }
+
+    /**
+     * An operator is only known to be pure when the expression still applies
+     * the function registered under its symbol.
+     */
+    private boolean isPure(Operator operator, Object function) {
+        if (operator instanceof UnaryOperator) {
+            return operator.isPure() && ((UnaryOperator) operator).getFunction() == function;
+        }
+        if (operator instanceof BinaryOperator) {
+            return operator.isPure() && ((BinaryOperator) operator).getFunction() == function;
+        }
+        return false;
+    }
+
+    private boolean isLiteral(Expression expression) {
+        return expression instanceof LiteralExpression;
+    }
+
+    private boolean isConstant(Expression<Map<String, Object>> arguments) {
+        return arguments instanceof ArgumentsExpression
+                && ((ArgumentsExpression) arguments).getArguments().values().stream().allMatch(this::isLiteral);
+    }
+
+    private Expression constant(Expression expression, Supplier<Object> value) {
+        try {
+            Object result = value.get();
+            if (null == result || IMMUTABLE_TYPES.contains(result.getClass())) {
+                return new LiteralExpression<>(result);
+            }
+        } catch (RuntimeException e) {
+            // left to fail while rendering, as it would without folding
+        }
+        return expression;
+    }
+}
@@ -0,0 +1,203 @@
+package com.marvin.bundle.templating.optimizer;
+
+import com.marvin.bundle.templating.expression.Expression;
+import com.marvin.bundle.templating.expression.support.LiteralExpression;
+import com.marvin.bundle.templating.extention.core.node.BlockNode;
+import com.marvin.bundle.templating.extention.core.node.ExtendsNode;
+import com.marvin.bundle.templating.extention.core.node.ForNode;
+import com.marvin.bundle.templating.extention.core.node.IfNode;
+import com.marvin.bundle.templating.extention.core.node.ImportNode;
+import com.marvin.bundle.templating.extention.core.node.SetNode;
+import com.marvin.bundle.templating.node.support.BodyNode;
+import com.marvin.bundle.templating.node.support.CommentNode;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.node.support.PrintNode;
+import com.marvin.bundle.templating.node.support.RootNode;
+import com.marvin.bundle.templating.node.support.TextNode;
+import com.marvin.bundle.templating.node.support.TextRunNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites parsed templates before they are rendered.
+ *
+ * The constant parts of expressions are folded, branches decided by a
+ * constant condition are pruned, bodies are flattened and consecutive static
+ * texts merged. Only the core nodes are rewritten, other nodes are kept as
+ * they are.
+ *
+ * The children of the root of a template extending another one are filtered
+ * by their class, so they are only replaced by nodes filtered the same way.
+ */
+public class TemplateOptimizer {
+
+    private final ConstantFolder folder;
+
+    /**
+     * Nodes rendered by the root of a template extending another one.
+     */
+    private final List<Class> safeNodes;
+
+    public TemplateOptimizer(ConstantFolder folder, List<Class> safeNodes) {
+        this.folder = folder;
+        this.safeNodes = safeNodes;
+    }
+
+    /**
+     * @param node The parsed node
+     * @return The optimized node, which may be the given one, or null if it
+     * never renders anything
+     */
+    public Node optimize(Node node) {
+        if (node instanceof RootNode) {
+            return new RootNode(optimizeBody(((RootNode) node).getBody(), true));
+        } else if (node instanceof BodyNode) {
+            return optimizeBody((BodyNode) node, false);
+        } else if (node instanceof PrintNode) {
+            return new PrintNode(this.folder.fold(((PrintNode) node).getExpression()));
+        } else if (node instanceof IfNode) {
+            return optimizeIf((IfNode) node, true);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            return new ForNode(forNode.getVarExpression(), this.folder.fold(forNode.getIterableExpression()),
+                    optimizeBody(forNode.getBody(), false), optimizeBody(forNode.getElseBody(), false));
+        } else if (node instanceof SetNode) {
+            SetNode set = (SetNode) node;
+            return new SetNode(set.getName(), this.folder.fold(set.getValue()));
+        } else if (node instanceof BlockNode) {
+            BlockNode block = (BlockNode) node;
+            return new BlockNode(block.getName(), optimizeBody(block.getBody(), false));
+        } else if (node instanceof ExtendsNode) {
+            ExtendsNode extend = (ExtendsNode) node;
+            return new ExtendsNode(this.folder.fold(extend.getParentExpression()), extend.getParentPath());
+        } else if (node instanceof ImportNode) {
+            ImportNode imported = (ImportNode) node;
+            return new ImportNode(this.folder.fold(imported.getImportExpression()), imported.getImportPath());
+        }
+        return node;
+    }
+
+    private BodyNode optimizeBody(BodyNode body, boolean root) {
+        if (null == body) {
+            return null;
+        }
+
+        List<Node> children = new ArrayList<>(body.getChildren().size());
+        for (Node child : body.getChildren()) {
+            if (root && child instanceof IfNode) {
+                // a pruned condition leaves a body, which is filtered on its own
+                boolean prune = isSafe(IfNode.class) == isSafe(BodyNode.class);
+                append(children, optimizeIf((IfNode) child, prune), true);
+            } else {
+                append(children, optimize(child), root);
+            }
+        }
+
+        BodyNode optimized = new BodyNode(children);
+        optimized.setOnlyRenderInheritanceSafeNodes(body.isOnlyRenderInheritanceSafeNodes());
+        return optimized;
+    }
+
+    /**
+     * @param prune Whether branches decided by a constant condition are pruned
+     * @return The optimized condition, the body always rendered instead of it,
+     * or null if nothing is ever rendered
+     */
+    private Node optimizeIf(IfNode node, boolean prune) {
+        Map<Expression<Boolean>, BodyNode> bodies = new LinkedHashMap<>();
+        Expression<Boolean> expression = null;
+        BodyNode elseBody = node.getElseBody();
+
+        for (Map.Entry<Expression<Boolean>, BodyNode> entry : node.getBodies().entrySet()) {
+            Expression<Boolean> condition = this.folder.fold(entry.getKey());
+
+            if (prune && isBoolean(condition)) {
+                if (Boolean.FALSE.equals(((LiteralExpression) condition).getValue())) {
+                    continue;
+                }
+                // taken whenever the previous branches are not, the next ones never are
+                elseBody = entry.getValue();
+                break;
+            }
+
+            expression = condition;
+            bodies.put(condition, optimizeBody(entry.getValue(), false));
+        }
+
+        if (bodies.isEmpty()) {
+            return optimizeBody(elseBody, false);
+        }
+        return new IfNode(expression, bodies, optimizeBody(elseBody, false));
+    }
+
+    /**
+     * Adds an optimized node to the children of a body, dropping what never
+     * renders anything, flattening nested bodies and merging static texts.
+     */
+    private void append(List<Node> children, Node node, boolean root) {
+        if (null == node || node instanceof CommentNode) {
+            return;
+        }
+
+        if (node instanceof BodyNode) {
+            List<Node> nested = ((BodyNode) node).getChildren();
+            if (nested.isEmpty()) {
+                return;
+            }
+            if (!root) {
+                nested.forEach(child -> append(children, child, false));
+                return;
+            }
+        }
+
+        List<String> texts = texts(node, root);
+        if (null == texts) {
+            children.add(node);
+            return;
+        }
+
+        int last = children.size() - 1;
+        List<String> previous = last < 0 ? null : texts(children.get(last), root);
+        if (null == previous) {
+            children.add(texts.size() == 1 ? new TextNode(texts.get(0)) : new TextRunNode(texts));
+            return;
+        }
+
+        List<String> merged = new ArrayList<>(previous);
+        merged.addAll(texts);
+        children.set(last, new TextRunNode(merged));
+    }
+
+    /**
+     * @return The static texts a node renders, or null if they are not known
+     * or the node can not be merged
+     */
+    private List<String> texts(Node node, boolean root) {
+        if (root && (isSafe(node.getClass()) || isSafe(TextNode.class) || isSafe(TextRunNode.class))) {
+            return null;
+        }
+
+        if (node instanceof TextNode) {
+            return Collections.singletonList(((TextNode) node).getValue());
+        } else if (node instanceof TextRunNode) {
+            return ((TextRunNode) node).getValues();
+        } else if (node instanceof PrintNode) {
+            Expression expression = ((PrintNode) node).getExpression();
+            if (expression instanceof LiteralExpression && ((LiteralExpression) expression).getValue() instanceof String) {
+                return Collections.singletonList((String) ((LiteralExpression) expression).getValue());
+            }
+        }
+        return null;
+    }
+
+    private boolean isBoolean(Expression expression) {
+        return expression instanceof LiteralExpression && ((LiteralExpression) expression).getValue() instanceof Boolean;
+    }
+
+    private boolean isSafe(Class type) {
+        return this.safeNodes.contains(type);
+    }
+}
@@ -0,0 +1,407 @@
+package com.marvin.bundle.templating.token;
+
+import com.marvin.bundle.templating.SourceCursor;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * A hand-written alternative to the token parser combinators.
+ *
+ * The source is scanned once, searching the delimiters directly instead of
+ * matching regular expressions. The same tokens are produced, and malformed
+ * templates fail with the same syntax errors.
+ */
+public class Lexer implements TokenParser {
+
+    private static final int NOT_SEARCHED = -2;
+
+    private final String printOpen;
+    private final String printClose;
+    private final String executeOpen;
+    private final String executeClose;
+    private final String commentOpen;
+    private final String commentClose;
+
+    /**
+     * Operators, in the order they have to be tried.
+     */
+    private final String[] operators;
+
+    public Lexer(String printOpen, String printClose,
+            String executeOpen, String executeClose,
+            String commentOpen, String commentClose,
+            String[] operators) {
+        this.printOpen = printOpen;
+        this.printClose = printClose;
+        this.executeOpen = executeOpen;
+        this.executeClose = executeClose;
+        this.commentOpen = commentOpen;
+        this.commentClose = commentClose;
+        this.operators = operators;
+    }
+
+    @Override
+    public List<Token> parse(SourceCursor source) throws Exception {
+        TokenBuffer tokens = new TokenBuffer(source.getSource());
+        tokenize(source, tokens);
+        return tokens.toList();
+    }
+
+    /**
+     * Tokenizes the remaining source, writing tokens straight to the buffer.
+     *
+     * @param source The source to tokenize
+     * @param tokens The buffer to fill
+     * @throws Exception Thrown if a syntax error occurs
+     */
+    public void tokenize(SourceCursor source, TokenBuffer tokens) throws Exception {
+
+        // next occurrence of each opening delimiter within the source, so
+        // that the text is not searched again until that occurrence is passed
+        int comment = NOT_SEARCHED;
+        int execute = NOT_SEARCHED;
+        int print = NOT_SEARCHED;
+
+        Input input = source::peek;
+
+        while (true) {
+            source.advanceThroughWhitespace();
+            int offset = source.getOffset();
+
+            comment = search(source, this.commentOpen, comment, offset);
+            execute = search(source, this.executeOpen, execute, offset);
+            print = search(source, this.printOpen, print, offset);
+            int next = nearest(nearest(comment, execute), print);
+
+            if (next < 0) {
+                break;
+            }
+
+            if (next > offset) {
+                text(source, tokens, next - offset);
+                continue;
+            }
+
+            // on equality, delimiters are tried in this order
+            if (comment == offset) {
+                comment(source, tokens);
+            } else if (execute == offset) {
+                execute(source, input, tokens);
+            } else {
+                print(source, input, tokens);
+            }
+        }
+
+        // remaining text
+        if (source.length() > 0) {
+            token(source, tokens, TokenType.TEXT, source.length());
+        }
+        token(source, tokens, TokenType.TEXT, 0);
+        tokens.addEOF();
+    }
+
+    /**
+     * Tokenizes characters pulled from a reader, by chunks, as the tokens are
+     * consumed.
+     *
+     * @param name The name of the template
+     * @param reader The reader to pull characters from
+     * @return The tokens of the template, ending with an EOF token
+     */
+    public StreamingLexer stream(String name, Reader reader) {
+        return stream(name, reader, StreamingLexer.DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingLexer stream(String name, Reader reader, int chunkSize) {
+        return new StreamingLexer(this, name, reader, chunkSize);
+    }
+
+    private void comment(SourceCursor source, TokenBuffer tokens) throws Exception {
+        delimiter(source, tokens, TokenType.COMMENT_OPEN, this.commentOpen);
+
+        source.advanceThroughWhitespace();
+        int end = source.indexOf(this.commentClose);
+        if (end < 0) {
+            String msg = String.format("Unclosed comment, expected \"%s\" at %s", this.commentClose, source.getPosition());
+            throw new Exception(msg);
+        }
+        text(source, tokens, end);
+
+        delimiter(source, tokens, TokenType.COMMENT_CLOSE, this.commentClose);
+    }
+
+    private void execute(SourceCursor source, Input input, TokenBuffer tokens) throws Exception {
+        delimiter(source, tokens, TokenType.EXECUTE_OPEN, this.executeOpen);
+
+        source.advanceThroughWhitespace();
+        int length = name(input);
+        if (length == 0) {
+            String msg = String.format("A block must start with a tag name at %s.", source.getPosition());
+            throw new Exception(msg);
+        }
+        token(source, tokens, TokenType.NAME, length);
+
+        expressions(source, input, tokens, TokenType.EXECUTE_CLOSE, this.executeClose);
+    }
+
+    private void print(SourceCursor source, Input input, TokenBuffer tokens) throws Exception {
+        delimiter(source, tokens, TokenType.PRINT_OPEN, this.printOpen);
+        expressions(source, input, tokens, TokenType.PRINT_CLOSE, this.printClose);
+    }
+
+    /**
+     * Reads expression tokens until the closing delimiter, which is always
+     * checked first.
+     */
+    private void expressions(SourceCursor source, Input input, TokenBuffer tokens, TokenType closeType, String close) throws Exception {
+        while (true) {
+            source.advanceThroughWhitespace();
+
+            if (source.startsWith(close)) {
+                delimiter(source, tokens, closeType, close);
+                return;
+            }
+
+            if (source.length() == 0) {
+                String msg = String.format("Unexpected end of template, expected \"%s\" at %s", close, source.getPosition());
+                throw new Exception(msg);
+            }
+
+            expression(source, input, tokens);
+        }
+    }
+
+    private void expression(SourceCursor source, Input input, TokenBuffer tokens) throws Exception {
+        int length = operator(input, this.operators);
+        if (length > 0) {
+            token(source, tokens, TokenType.OPERATOR, length);
+            return;
+        }
+
+        length = name(input);
+        if (length > 0) {
+            token(source, tokens, TokenType.NAME, length);
+            return;
+        }
+
+        length = number(input);
+        if (length > 0) {
+            token(source, tokens, TokenType.NUMBER, length);
+            return;
+        }
+
+        char current = source.charAt(0);
+        if (TokenParsers.PUNCTUATIONS.indexOf(current) >= 0) {
+            token(source, tokens, TokenType.PUNCTUATION, 1);
+            return;
+        }
+
+        if (current == '"' || current == '\'') {
+            string(source, input, tokens, current);
+            return;
+        }
+
+        String msg = String.format("Unexpected character \"%s\" at %s", current, source.getPosition());
+        throw new Exception(msg);
+    }
+
+    private void string(SourceCursor source, Input input, TokenBuffer tokens, char quotation) throws Exception {
+        int end = string(input, quotation);
+        if (end < 0) {
+            String msg = String.format("Unclosed string at %s", source.getPosition());
+            throw new Exception(msg);
+        }
+
+        // escaped quotation marks are removed when the value is built
+        int offset = source.getOffset();
+        tokens.add(TokenType.STRING, offset + 1, offset + end, offset);
+        source.advance(end + 1);
+    }
+
+    private void delimiter(SourceCursor source, TokenBuffer tokens, TokenType type, String delimiter) {
+        token(source, tokens, type, delimiter.length());
+    }
+
+    private void token(SourceCursor source, TokenBuffer tokens, TokenType type, int length) {
+        int offset = source.getOffset();
+        tokens.add(type, offset, offset + length, offset);
+        source.advance(length);
+    }
+
+    /**
+     * Adds a text token, trimmed the same way as {@link String#trim()}.
+     */
+    private void text(SourceCursor source, TokenBuffer tokens, int length) {
+        int offset = source.getOffset();
+        int start = offset;
+        int end = offset + length;
+        while (start < end && source.charAt(start - offset) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - offset - 1) <= ' ') {
+            end--;
+        }
+        tokens.add(TokenType.TEXT, start, end, offset);
+        source.advance(length);
+    }
+
+    public String getPrintOpen() {
+        return printOpen;
+    }
+
+    public String getPrintClose() {
+        return printClose;
+    }
+
+    public String getExecuteOpen() {
+        return executeOpen;
+    }
+
+    public String getExecuteClose() {
+        return executeClose;
+    }
+
+    public String getCommentOpen() {
+        return commentOpen;
+    }
+
+    public String getCommentClose() {
+        return commentClose;
+    }
+
+    public String[] getOperators() {
+        return operators;
+    }
+
+    /**
+     * Searches a delimiter again only when its previous occurrence has been
+     * passed, once there is none left it is never searched again.
+     */
+    private static int search(SourceCursor source, String delimiter, int previous, int offset) {
+        if (previous == -1 || previous >= offset) {
+            return previous;
+        }
+        int index = source.indexOf(delimiter);
+        return index < 0 ? -1 : offset + index;
+    }
+
+    private static int nearest(int first, int second) {
+        if (first < 0) {
+            return second;
+        }
+        if (second < 0) {
+            return first;
+        }
+        return Math.min(first, second);
+    }
+
+    /**
+     * @return The length of the first operator found at the input, or 0
+     */
+    static int operator(Input input, String[] operators) {
+        for (String operator : operators) {
+            if (!startsWith(input, operator)) {
+                continue;
+            }
+
+            // operators made of letters must not be followed by a letter
+            int length = operator.length();
+            char last = operator.charAt(length - 1);
+            if ((Character.isLetter(last) || Character.getType(last) == Character.LETTER_NUMBER)
+                    && isAsciiLetter(input.peek(length))) {
+                continue;
+            }
+
+            return length;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The length of the name found at the input, or 0
+     */
+    static int name(Input input) {
+        int first = input.peek(0);
+        if (!isAsciiLetter(first) && first != '_') {
+            return 0;
+        }
+
+        int index = 1;
+        while (true) {
+            int c = input.peek(index);
+            if (!isAsciiLetter(c) && !isDigit(c) && c != '_') {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return The length of the number found at the input, or 0
+     */
+    static int number(Input input) {
+        int index = 0;
+        while (isDigit(input.peek(index))) {
+            index++;
+        }
+
+        // decimal part
+        if (index > 0 && input.peek(index) == '.' && isDigit(input.peek(index + 1))) {
+            index += 2;
+            while (isDigit(input.peek(index))) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The index of the quotation mark closing the string found at the
+     * input, or -1 if the string is not closed
+     */
+    static int string(Input input, char quotation) {
+        int end = 1;
+        int previous = input.peek(0);
+        while (true) {
+            int c = input.peek(end);
+            if (c < 0) {
+                return -1;
+            }
+            if (c == quotation && previous != '\\') {
+                return end;
+            }
+            previous = c;
+            end++;
+        }
+    }
+
+    static boolean startsWith(Input input, String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if (input.peek(i) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The characters ahead of a lexer.
+     */
+    interface Input {
+
+        /**
+         * @param index An index relative to the lexer
+         * @return The character at that index, or -1 past the end
+         */
+        int peek(int index);
+    }
+}
@@ -0,0 +1,27 @@
+package com.marvin.bundle.templating.token;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * A registry of the compiled patterns used by the grammar.
+ *
+ * Patterns are immutable and thread safe, each one is compiled once and
+ * shared by every parser and every engine needing it.
+ */
+public final class Patterns {
+
+    private static final ConcurrentMap<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private Patterns() {
+    }
+
+    public static Pattern compile(String regex) {
+        return compile(regex, 0);
+    }
+
+    public static Pattern compile(String regex, int flags) {
+        return PATTERNS.computeIfAbsent(flags + ":" + regex, key -> Pattern.compile(regex, flags));
+    }
+}
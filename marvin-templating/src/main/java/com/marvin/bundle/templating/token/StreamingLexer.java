@@ -0,0 +1,360 @@
+package com.marvin.bundle.templating.token;
+
+import com.marvin.bundle.templating.Position;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lexer pulling the characters of a template from a reader.
+ *
+ * Only a window of the template is kept in memory, it is refilled chunk by
+ * chunk and only grows when a single token does not fit in it. Tokens are
+ * produced as they are consumed and hold their own value and position, since
+ * the template is never kept as a whole.
+ */
+public class StreamingLexer implements Iterator<Token> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final Lexer lexer;
+
+    private final String name;
+
+    private final Reader reader;
+
+    private final Lexer.Input input = this::peek;
+
+    /**
+     * Tokens of the last lexed text or tag, not consumed yet.
+     */
+    private final ArrayDeque<Token> pending = new ArrayDeque<>();
+
+    private char[] window;
+
+    /**
+     * Index of the first character not consumed yet within the window.
+     */
+    private int start = 0;
+
+    /**
+     * Index following the last character read within the window.
+     */
+    private int end = 0;
+
+    private boolean exhausted = false;
+
+    private boolean finished = false;
+
+    /**
+     * Position of the first character not consumed yet within the template.
+     */
+    private int offset = 0;
+    private int line = 1;
+    private int lineStart = 0;
+
+    /**
+     * Characters ahead already counted as the end of a windows newline.
+     */
+    private int counted = 0;
+
+    public StreamingLexer(Lexer lexer, String name, Reader reader, int chunkSize) {
+        this.lexer = lexer;
+        this.name = name;
+        this.reader = reader;
+        this.window = new char[chunkSize];
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !this.pending.isEmpty() || !this.finished;
+    }
+
+    /**
+     * @return The next token
+     * @throws IllegalStateException Thrown if a syntax error occurs
+     * @throws UncheckedIOException Thrown if the reader fails
+     */
+    @Override
+    public Token next() {
+        if (this.pending.isEmpty()) {
+            if (this.finished) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                lex();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+        return this.pending.poll();
+    }
+
+    /**
+     * Lexes the next text or tag.
+     */
+    private void lex() throws Exception {
+        skipWhitespace();
+
+        int next = find(this.lexer.getCommentOpen(), this.lexer.getExecuteOpen(), this.lexer.getPrintOpen());
+
+        if (next < 0) {
+            // remaining text
+            ensure(Integer.MAX_VALUE);
+            if (this.end > this.start) {
+                token(TokenType.TEXT, this.end - this.start);
+            }
+            token(TokenType.TEXT, 0);
+            this.pending.add(Token.EOF());
+            this.finished = true;
+            return;
+        }
+
+        if (next > 0) {
+            text(next);
+            return;
+        }
+
+        // on equality, delimiters are tried in this order
+        if (Lexer.startsWith(this.input, this.lexer.getCommentOpen())) {
+            comment();
+        } else if (Lexer.startsWith(this.input, this.lexer.getExecuteOpen())) {
+            execute();
+        } else {
+            print();
+        }
+    }
+
+    private void comment() throws Exception {
+        token(TokenType.COMMENT_OPEN, this.lexer.getCommentOpen().length());
+
+        skipWhitespace();
+        String close = this.lexer.getCommentClose();
+        int index = find(close);
+        if (index < 0) {
+            String msg = String.format("Unclosed comment, expected \"%s\" at %s", close, getPosition());
+            throw new Exception(msg);
+        }
+        text(index);
+
+        token(TokenType.COMMENT_CLOSE, close.length());
+    }
+
+    private void execute() throws Exception {
+        token(TokenType.EXECUTE_OPEN, this.lexer.getExecuteOpen().length());
+
+        skipWhitespace();
+        int length = Lexer.name(this.input);
+        if (length == 0) {
+            String msg = String.format("A block must start with a tag name at %s.", getPosition());
+            throw new Exception(msg);
+        }
+        token(TokenType.NAME, length);
+
+        expressions(TokenType.EXECUTE_CLOSE, this.lexer.getExecuteClose());
+    }
+
+    private void print() throws Exception {
+        token(TokenType.PRINT_OPEN, this.lexer.getPrintOpen().length());
+        expressions(TokenType.PRINT_CLOSE, this.lexer.getPrintClose());
+    }
+
+    private void expressions(TokenType closeType, String close) throws Exception {
+        while (true) {
+            skipWhitespace();
+
+            if (Lexer.startsWith(this.input, close)) {
+                token(closeType, close.length());
+                return;
+            }
+
+            if (peek(0) < 0) {
+                String msg = String.format("Unexpected end of template, expected \"%s\" at %s", close, getPosition());
+                throw new Exception(msg);
+            }
+
+            expression();
+        }
+    }
+
+    private void expression() throws Exception {
+        int length = Lexer.operator(this.input, this.lexer.getOperators());
+        if (length > 0) {
+            token(TokenType.OPERATOR, length);
+            return;
+        }
+
+        length = Lexer.name(this.input);
+        if (length > 0) {
+            token(TokenType.NAME, length);
+            return;
+        }
+
+        length = Lexer.number(this.input);
+        if (length > 0) {
+            token(TokenType.NUMBER, length);
+            return;
+        }
+
+        char current = (char) peek(0);
+        if (TokenParsers.PUNCTUATIONS.indexOf(current) >= 0) {
+            token(TokenType.PUNCTUATION, 1);
+            return;
+        }
+
+        if (current == '"' || current == '\'') {
+            string(current);
+            return;
+        }
+
+        String msg = String.format("Unexpected character \"%s\" at %s", current, getPosition());
+        throw new Exception(msg);
+    }
+
+    private void string(char quotation) throws Exception {
+        int index = Lexer.string(this.input, quotation);
+        if (index < 0) {
+            String msg = String.format("Unclosed string at %s", getPosition());
+            throw new Exception(msg);
+        }
+
+        // remove backslashes used to escape inner quotation marks
+        String value = new String(this.window, this.start + 1, index - 1)
+                .replace(String.valueOf(new char[]{'\\', quotation}), String.valueOf(quotation));
+        this.pending.add(new Token(TokenType.STRING, value, getPosition()));
+        consume(index + 1);
+    }
+
+    private void token(TokenType type, int length) {
+        String value = new String(this.window, this.start, length);
+        this.pending.add(new Token(type, value, getPosition()));
+        consume(length);
+    }
+
+    /**
+     * Adds a text token, trimmed the same way as {@link String#trim()}.
+     */
+    private void text(int length) {
+        String value = new String(this.window, this.start, length).trim();
+        this.pending.add(new Token(TokenType.TEXT, value, getPosition()));
+        consume(length);
+    }
+
+    private void skipWhitespace() {
+        int length = 0;
+        int c;
+        while ((c = peek(length)) >= 0 && Character.isWhitespace(c)) {
+            length++;
+        }
+        consume(length);
+    }
+
+    /**
+     * @return The index of the first occurrence of any of the targets, or -1
+     */
+    private int find(String... targets) {
+        for (int index = 0; peek(index) >= 0; index++) {
+            for (String target : targets) {
+                if (matches(index, target)) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int index, String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if (peek(index + i) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param index An index relative to the first character not consumed
+     * @return The character at that index, or -1 past the end of the template
+     */
+    private int peek(int index) {
+        if (this.end - this.start > index || ensure(index + 1)) {
+            return this.window[this.start + index];
+        }
+        return -1;
+    }
+
+    /**
+     * Reads from the reader until the given amount of characters, counted
+     * from the first one not consumed, is available.
+     *
+     * @return false if the template ends before
+     */
+    private boolean ensure(int amount) {
+        while (this.end - this.start < amount && !this.exhausted) {
+            if (this.end == this.window.length) {
+                int length = this.end - this.start;
+                if (length < this.window.length >> 1) {
+                    System.arraycopy(this.window, this.start, this.window, 0, length);
+                } else {
+                    this.window = Arrays.copyOf(this.window, this.window.length << 1);
+                    System.arraycopy(this.window, this.start, this.window, 0, length);
+                }
+                this.start = 0;
+                this.end = length;
+            }
+
+            int read;
+            try {
+                read = this.reader.read(this.window, this.end, this.window.length - this.end);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (read < 0) {
+                this.exhausted = true;
+            } else {
+                this.end += read;
+            }
+        }
+        return this.end - this.start >= amount;
+    }
+
+    /**
+     * Consumes characters, counting the lines they end.
+     */
+    private void consume(int length) {
+        int index = this.counted;
+        while (index < length) {
+            char c = this.window[this.start + index];
+
+            if ('\r' == c && peek(index + 1) == '\n') {
+                index += 2;
+            } else if ('\n' == c || '\r' == c
+                    || '\u0085' == c || '\u2028' == c
+                    || '\u2029' == c) {
+                index++;
+            } else {
+                index++;
+                continue;
+            }
+
+            this.line++;
+            this.lineStart = this.offset + index;
+        }
+
+        this.counted = Math.max(index - length, 0);
+        this.start += length;
+        this.offset += length;
+    }
+
+    private Position getPosition() {
+        return new Position(this.name, this.line, this.offset - this.lineStart + 1);
+    }
+}
@@ -0,0 +1,136 @@
+package com.marvin.bundle.templating.token;
+
+import java.util.Objects;
+import com.marvin.bundle.templating.Position;
+import com.marvin.bundle.templating.Source;
+import java.util.Arrays;
+
+public class Token {
+    
+    private TokenType type;
+    
+    private String value;
+    
+    /**
+     * The source the token was read from, its position is only computed when
+     * needed.
+     */
+    private Source source;
+    
+    private int offset;
+    
+    /**
+     * The buffer the token was read from, its value is computed from it when
+     * first needed.
+     */
+    private TokenBuffer buffer;
+    
+    private int index;
+    
+    /**
+     * The position of a token which source is not kept.
+     */
+    private Position position;
+
+    public Token(TokenType type) {
+        this.type = type;
+    }
+
+    public Token(TokenBuffer buffer, int index) {
+        this.type = buffer.getType(index);
+        this.buffer = buffer;
+        this.index = index;
+        if (buffer.getOffset(index) >= 0) {
+            this.source = buffer.getSource();
+            this.offset = buffer.getOffset(index);
+        }
+    }
+
+    public Token(TokenType type, String value, Source source, int offset) {
+        this.type = type;
+        this.value = value;
+        this.source = source;
+        this.offset = offset;
+    }
+    
+    public Token(TokenType type, String value, Position position) {
+        this.type = type;
+        this.value = value;
+        this.position = position;
+    }
+    
+    public boolean isA(TokenType type) {
+        return this.type.equals(type);
+    }
+    
+    public boolean isA(TokenType type, String value) {
+        return isA(type) && Objects.equals(getValue(), value);
+    }
+    
+    public boolean isA(TokenType type, String... values) {
+        boolean test = true;
+        
+        if (values.length > 0) {
+            test = Arrays.asList(values).contains(getValue());
+        }
+        
+        return test && isA(type);
+    }
+
+
+    public Position getPosition() {
+        if (null != position) {
+            return position;
+        }
+        if (null == source) {
+            return null;
+        }
+        return source.getPosition(offset);
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getValue() {
+        if (null == value && null != buffer) {
+            value = buffer.getValue(index);
+        }
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+        this.buffer = null;
+    }
+    
+    public TokenType getType() {
+        return type;
+    }
+
+    public void setType(TokenType type) {
+        this.type = type;
+    }
+    
+    public static boolean isEOF(Token token) {
+        return token.isA(TokenType.EOF);
+    }
+    
+    public static Token EOF() {
+        return new Token(TokenType.EOF);
+    }
+    
+    public static Token text(String text, Source source, int offset) {
+        return new Token(TokenType.TEXT, text, source, offset);
+    }
+
+    @Override
+    public String toString() {
+        return "Token{" + "type=" + type + ", value=" + getValue() + ", position=" + getPosition() + '}';
+    }
+    
+}
@@ -0,0 +1,178 @@
+package com.marvin.bundle.templating.token;
+
+import com.marvin.bundle.templating.Position;
+import com.marvin.bundle.templating.Source;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A compact buffer of tokens.
+ *
+ * Tokens are stored in parallel arrays holding their type, the start and end
+ * of their value and their offset within the source. Values only become
+ * strings when they are asked for.
+ */
+public class TokenBuffer {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Source source;
+
+    private int[] types;
+    private int[] starts;
+    private int[] ends;
+    private int[] offsets;
+
+    /**
+     * Values which are not a part of the source, only allocated when a token
+     * is added with its value.
+     */
+    private String[] values;
+
+    private int size = 0;
+
+    public TokenBuffer(Source source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+
+    public TokenBuffer(Source source, int capacity) {
+        this.source = source;
+        this.types = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.offsets = new int[capacity];
+    }
+
+    /**
+     * Adds a token whose value is a part of the source.
+     *
+     * @param type The type of the token
+     * @param start The index of the first character of its value
+     * @param end The index following the last character of its value
+     * @param offset The index of the token within the source
+     */
+    public void add(TokenType type, int start, int end, int offset) {
+        ensureCapacity(size + 1);
+        this.types[size] = type.ordinal();
+        this.starts[size] = start;
+        this.ends[size] = end;
+        this.offsets[size] = offset;
+        this.size++;
+    }
+
+    /**
+     * Adds an already built token, keeping its value as is.
+     *
+     * @param token The token to add
+     */
+    public void add(Token token) {
+        int index = this.size;
+        add(token.getType(), 0, 0, token.getSource() == null ? -1 : token.getOffset());
+
+        if (null != token.getValue()) {
+            if (null == this.values) {
+                this.values = new String[this.types.length];
+            }
+            this.values[index] = token.getValue();
+        }
+    }
+
+    public void addEOF() {
+        add(TokenType.EOF, 0, 0, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[this.types[index]];
+    }
+
+    public boolean isA(int index, TokenType type) {
+        return this.types[index] == type.ordinal();
+    }
+
+    public String getValue(int index) {
+        if (null != this.values && index < this.values.length && null != this.values[index]) {
+            return this.values[index];
+        }
+
+        if (isA(index, TokenType.EOF)) {
+            return null;
+        }
+
+        String value = source.substring(this.starts[index], this.ends[index]);
+
+        if (isA(index, TokenType.STRING)) {
+            // remove backslashes used to escape inner quotation marks
+            char quotation = source.charAt(this.starts[index] - 1);
+            value = value.replace(String.valueOf(new char[]{'\\', quotation}), String.valueOf(quotation));
+        }
+
+        return value;
+    }
+
+    public int getOffset(int index) {
+        return this.offsets[index];
+    }
+
+    public Position getPosition(int index) {
+        int offset = this.offsets[index];
+        if (offset < 0) {
+            return null;
+        }
+        return source.getPosition(offset);
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Builds the token at the given index, its value is still computed when
+     * first asked for.
+     *
+     * @param index The index of the token
+     * @return The token
+     */
+    public Token get(int index) {
+        return new Token(this, index);
+    }
+
+    public List<Token> toList() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(get(i));
+        }
+        return tokens;
+    }
+
+    public static TokenBuffer of(Source source, Collection<Token> tokens) {
+        TokenBuffer buffer = new TokenBuffer(source, Math.max(tokens.size(), 1));
+        tokens.forEach(buffer::add);
+        return buffer;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (this.types.length < minCapacity) {
+            int capacity = Math.max(this.types.length << 1, minCapacity);
+            this.types = Arrays.copyOf(this.types, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.offsets = Arrays.copyOf(this.offsets, capacity);
+            if (null != this.values) {
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
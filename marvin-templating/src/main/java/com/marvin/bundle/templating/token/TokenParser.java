@@ -4,42 +4,59 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import com.marvin.bundle.templating.Source;
+import com.marvin.bundle.templating.SourceCursor;
 
 @FunctionalInterface
 public interface TokenParser {
     
-    List<Token> parse(Source source) throws Exception;
+    /**
+     * Returned by a parser which does not match the source. It is compared by
+     * identity, so that a non-match neither allocates nor throws. Exceptions
+     * are kept for real syntax errors.
+     */
+    List<Token> NO_MATCH = Collections.unmodifiableList(new ArrayList<>(0));
     
-    default List<Token> parse(Source source, boolean skipWhiteSpaces) throws Exception{
+    /**
+     * @param source The source to parse
+     * @return The parsed tokens or {@link #NO_MATCH}
+     * @throws Exception Thrown if a syntax error occurs
+     */
+    List<Token> parse(SourceCursor source) throws Exception;
+    
+    default List<Token> parse(SourceCursor source, boolean skipWhiteSpaces) throws Exception{
         if (skipWhiteSpaces) {
             source.advanceThroughWhitespace();
         }
         return parse(source);
     }
     
-    @SuppressWarnings("UnusedAssignment")
-    default Optional<List<Token>> tryParse(Source source, boolean skipWhiteSpaces) {
-        Source clone = source.save();
-        try {
-            return Optional.of(parse(source, skipWhiteSpaces));
-        } catch (Exception exception) {
-            // do nothing with exception
-            source = clone;
+    /**
+     * Tries to parse the source, moving it back to where it was when this
+     * parser does not match. Skipped whitespaces are kept skipped.
+     */
+    default List<Token> tryParse(SourceCursor source, boolean skipWhiteSpaces) throws Exception {
+        if (skipWhiteSpaces) {
+            source.advanceThroughWhitespace();
         }
-        return Optional.empty();
+        int mark = source.mark();
+        List<Token> result = parse(source);
+        if (result == NO_MATCH) {
+            source.reset(mark);
+        }
+        return result;
     };
     
     default TokenParser skip(TokenParser skip, boolean skipWhiteSpaces) {
         return (source) -> {
             List<Token> result = parse(source, skipWhiteSpaces);
-            skip.parse(source, skipWhiteSpaces);
+            if (result == NO_MATCH || skip.parse(source, skipWhiteSpaces) == NO_MATCH) {
+                return NO_MATCH;
+            }
             return result;
         };
     }
@@ -47,16 +64,23 @@ public interface TokenParser {
     default TokenParser then(TokenParser then) {
         return (source) -> {
             List<Token> result = parse(source, true);
-            result.addAll(then.parse(source, true));
+            if (result == NO_MATCH) {
+                return NO_MATCH;
+            }
+            List<Token> next = then.parse(source, true);
+            if (next == NO_MATCH) {
+                return NO_MATCH;
+            }
+            result.addAll(next);
             return result;
         };
     }
     
     default TokenParser or(TokenParser then) {
         return (source) -> {
-            Optional<List<Token>> tryParse = tryParse(source, true);
-            if (tryParse.isPresent()) {
-                return tryParse.get();
+            List<Token> result = tryParse(source, true);
+            if (result != NO_MATCH) {
+                return result;
             }
             return then.parse(source);
         };
@@ -65,21 +89,25 @@ public interface TokenParser {
     default TokenParser until(TokenParser end) {
         return source -> {
             List<Token> result = new ArrayList<>();
-            Optional<List<Token>> tokens = end.tryParse(source, true);
-            while(!tokens.isPresent()) {
-                result.addAll(parse(source, true));
+            List<Token> tokens = end.tryParse(source, true);
+            while(tokens == NO_MATCH) {
+                List<Token> element = parse(source, true);
+                if (element == NO_MATCH) {
+                    return NO_MATCH;
+                }
+                result.addAll(element);
                 tokens = end.tryParse(source, true);
             }
-            result.addAll(tokens.get());
+            result.addAll(tokens);
             return result;
         };
     }
     
     default TokenParser optional() {
         return source -> {
-            Optional<List<Token>> result = tryParse(source, true);
-            if (result.isPresent()) {
-                return result.get();
+            List<Token> result = tryParse(source, true);
+            if (result != NO_MATCH) {
+                return result;
             }
             return Collections.emptyList();
         };
@@ -88,9 +116,15 @@ public interface TokenParser {
     default TokenParser zeroOrMore() {
         return source -> {
             List<Token> result = new ArrayList<>();
-            Optional<List<Token>> element;
-            while((element = tryParse(source, true)).isPresent()) {
-                result.addAll(element.get());
+            List<Token> element;
+            int offset = source.getOffset();
+            while((element = tryParse(source, true)) != NO_MATCH) {
+                result.addAll(element);
+                // an element matching nothing would match forever
+                if (offset == source.getOffset()) {
+                    break;
+                }
+                offset = source.getOffset();
             }
             return result;
         };
@@ -99,11 +133,15 @@ public interface TokenParser {
     default TokenParser zeroOrMore(TokenParser separator, boolean skipWhiteSpaces) {
         return source -> {
             List<Token> result = new ArrayList<>();
-            Optional<List<Token>> element = tryParse(source, skipWhiteSpaces);
-            if(element.isPresent()) {
-                result.addAll(element.get());
-                while(separator.tryParse(source, skipWhiteSpaces).isPresent()) {
-                    result.addAll(parse(source, skipWhiteSpaces));
+            List<Token> element = tryParse(source, skipWhiteSpaces);
+            if(element != NO_MATCH) {
+                result.addAll(element);
+                while(separator.tryParse(source, skipWhiteSpaces) != NO_MATCH) {
+                    element = parse(source, skipWhiteSpaces);
+                    if (element == NO_MATCH) {
+                        return NO_MATCH;
+                    }
+                    result.addAll(element);
                 }
             }
             return result;
@@ -113,10 +151,19 @@ public interface TokenParser {
     default TokenParser oneOrMore(boolean skipWhiteSpaces) {
         return source -> {
             List<Token> result = new ArrayList<>();
-            result.addAll(parse(source, true));
-            Optional<List<Token>> element;
-            while((element = tryParse(source, skipWhiteSpaces)).isPresent()) {
-                result.addAll(element.get());
+            List<Token> element = parse(source, true);
+            if (element == NO_MATCH) {
+                return NO_MATCH;
+            }
+            result.addAll(element);
+            int offset = source.getOffset();
+            while((element = tryParse(source, skipWhiteSpaces)) != NO_MATCH) {
+                result.addAll(element);
+                // an element matching nothing would match forever
+                if (offset == source.getOffset()) {
+                    break;
+                }
+                offset = source.getOffset();
             }
             return result;
         };
@@ -125,9 +172,17 @@ public interface TokenParser {
     default TokenParser oneOrMore(TokenParser separator, boolean skipWhiteSpaces) {
         return source -> {
             List<Token> result = new ArrayList<>();
-            result.addAll(parse(source, true));
-            while(separator.tryParse(source, skipWhiteSpaces).isPresent()) {
-                result.addAll(parse(source, skipWhiteSpaces));
+            List<Token> element = parse(source, true);
+            if (element == NO_MATCH) {
+                return NO_MATCH;
+            }
+            result.addAll(element);
+            while(separator.tryParse(source, skipWhiteSpaces) != NO_MATCH) {
+                element = parse(source, skipWhiteSpaces);
+                if (element == NO_MATCH) {
+                    return NO_MATCH;
+                }
+                result.addAll(element);
             }
             return result;
         };
@@ -137,8 +192,8 @@ public interface TokenParser {
         return source -> {
             List<Token> result = parse(source, true);
             
-            if (!predicate.test(result)) {
-                throw new Exception("Does not respect filter");
+            if (result == NO_MATCH || !predicate.test(result)) {
+                return NO_MATCH;
             }
             
             return result;
@@ -147,7 +202,13 @@ public interface TokenParser {
     
     default TokenParser map(Function<List<Token>, List<Token>> function) {
         return source -> {
-            return function.apply(parse(source, true));
+            List<Token> result = parse(source, true);
+            
+            if (result == NO_MATCH) {
+                return NO_MATCH;
+            }
+            
+            return function.apply(result);
         };
     }
     
@@ -164,12 +225,11 @@ public interface TokenParser {
         return source -> {
             Matcher matcher = pattern.matcher(source);
             if(!matcher.lookingAt()) {
-                String msg = String.format("%s not found at %s", pattern.pattern(), source.getPosition());
-                throw new Exception(msg);
+                return NO_MATCH;
             }
             String value = source.substring(matcher.end());
             value = operation.apply(value);
-            Token token = new Token(type, value, source.getPosition());
+            Token token = new Token(type, value, source.getSource(), source.getOffset());
             source.advance(matcher.end());
             return new ArrayList(Collections.singletonList(token));
         };
@@ -183,11 +243,11 @@ public interface TokenParser {
         StringBuilder sb = new StringBuilder("^.*?(?=");
         sb.append(values.stream().map(Pattern::quote).collect(Collectors.joining("|")));
         sb.append(")");
-        return from(type, Pattern.compile(sb.toString(), Pattern.DOTALL), true);
+        return from(type, Patterns.compile(sb.toString(), Pattern.DOTALL), true);
     }
     
     static TokenParser value(TokenType type, String value) {
-        return from(type, Pattern.compile(Pattern.quote(value)), true);
+        return from(type, Patterns.compile(Pattern.quote(value)), true);
     }
     
     static TokenParser in(TokenType type, String[] values) {
@@ -207,7 +267,7 @@ public interface TokenParser {
                 regex.append("(?![a-zA-Z])");
             }
         }
-        return from(type, Pattern.compile(regex.toString()), true);
+        return from(type, Patterns.compile(regex.toString()), true);
     }
     
     static TokenParser in(TokenType type, String value) {
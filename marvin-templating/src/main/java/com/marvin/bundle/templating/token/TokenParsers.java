@@ -0,0 +1,100 @@
+package com.marvin.bundle.templating.token;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+public interface TokenParsers {
+    
+    public static final Pattern REGEX_STRING = Patterns.compile("((\").*?(?<!\\\\)(\"))|((').*?(?<!\\\\)('))", Pattern.DOTALL);
+    
+    public static final Pattern REGEX_NUMBER = Patterns.compile("^[0-9]+(\\.[0-9]+)?");
+    
+    public static final Pattern REGEX_NAME = Patterns.compile("^[a-zA-Z_][a-zA-Z0-9_]*");
+        
+    public static final String PUNCTUATIONS = "()[]{}?:.,|=";
+
+    static TokenParser text() {
+        return TokenParser.from(TokenType.TEXT, Patterns.compile(".*"), false);
+    }
+    
+    static TokenParser string() {
+        return TokenParser.from(TokenType.STRING, REGEX_STRING, value -> {
+            char quotationType = value.charAt(0);
+            // remove backslashes used to escape inner quotation marks
+            value = value.substring(1, value.length() - 1);
+            if (quotationType == '\'') {
+                value = value.replaceAll("\\\\(')", "$1");
+            } else if (quotationType == '"') {
+                value = value.replaceAll("\\\\(\")", "$1");
+            }
+            
+            return value;
+        });
+    }
+    
+    static TokenParser name() {
+        return TokenParser.from(TokenType.NAME, REGEX_NAME, true);
+    }
+    
+    static TokenParser number() {
+        return TokenParser.from(TokenType.NUMBER, REGEX_NUMBER, true);
+    }
+    
+    static TokenParser punctuation() {
+        return TokenParser.in(TokenType.PUNCTUATION, PUNCTUATIONS.split(""));
+    }
+    
+    /**
+     * Fails on whatever is found where an expression or the closing delimiter
+     * is expected, with the same errors as the {@link Lexer}.
+     */
+    static TokenParser unexpected(String close) {
+        return source -> {
+            if (source.length() == 0) {
+                String msg = String.format("Unexpected end of template, expected \"%s\" at %s", close, source.getPosition());
+                throw new Exception(msg);
+            }
+            
+            char current = source.charAt(0);
+            if (current == '"' || current == '\'') {
+                String msg = String.format("Unclosed string at %s", source.getPosition());
+                throw new Exception(msg);
+            }
+            
+            String msg = String.format("Unexpected character \"%s\" at %s", current, source.getPosition());
+            throw new Exception(msg);
+        };
+    }
+    
+    /**
+     * Fails where the name of a block is expected.
+     */
+    static TokenParser missingTagName() {
+        return source -> {
+            String msg = String.format("A block must start with a tag name at %s.", source.getPosition());
+            throw new Exception(msg);
+        };
+    }
+    
+    /**
+     * Fails where a comment should be closed.
+     */
+    static TokenParser unclosedComment(String close) {
+        return source -> {
+            String msg = String.format("Unclosed comment, expected \"%s\" at %s", close, source.getPosition());
+            throw new Exception(msg);
+        };
+    }
+    
+    static TokenParser EOF() {
+        return text().then(source -> {
+            if (source.length() == 0) {
+                return Arrays.asList(Token.EOF());
+            }
+            
+            String msg = String.format("Expected EOF Token but there is still data to tokenize at %s (%s)", source.getPosition(), source);
+            throw new Exception(msg);
+        });
+    }
+    
+}
@@ -0,0 +1,192 @@
+package com.marvin.bundle.templating.token;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+
+public class TokenStream {
+
+    private final TokenBuffer buffer;
+    
+    /**
+     * Tokens already built from the buffer, each one is built at most once.
+     */
+    private final Token[] tokens;
+    
+    /**
+     * When set, tokens are pulled from it as the stream moves forward and
+     * only the ones ahead of the current token are kept.
+     */
+    private final Iterator<Token> iterator;
+    
+    private final ArrayList<Token> pending;
+    
+    /**
+     * The index of the first pending token.
+     */
+    private int first;
+    
+    private int current;
+
+    /**
+     * Constructor for a Token Stream
+     *
+     * @param tokens A collection of tokens
+     */
+    public TokenStream(Collection<Token> tokens) {
+        this.buffer = null;
+        this.tokens = tokens.toArray(new Token[tokens.size()]);
+        this.iterator = null;
+        this.pending = null;
+        this.current = 0;
+    }
+
+    /**
+     * Constructor for a Token Stream
+     *
+     * @param buffer A buffer of tokens
+     */
+    public TokenStream(TokenBuffer buffer) {
+        this.buffer = buffer;
+        this.tokens = new Token[buffer.size()];
+        this.iterator = null;
+        this.pending = null;
+        this.current = 0;
+    }
+
+    /**
+     * Constructor for a Token Stream
+     *
+     * @param iterator An iterator of tokens, such as a streaming lexer
+     */
+    public TokenStream(Iterator<Token> iterator) {
+        this.buffer = null;
+        this.tokens = null;
+        this.iterator = iterator;
+        this.pending = new ArrayList<>();
+        this.current = 0;
+    }
+    
+    private Token get(int index) {
+        if (null != this.iterator) {
+            return pull(index);
+        }
+        
+        Token token = this.tokens[index];
+        if (null == token) {
+            token = this.buffer.get(index);
+            this.tokens[index] = token;
+        }
+        return token;
+    }
+
+    private Token pull(int index) {
+        // tokens behind the current one are never read again
+        while (this.first < this.current && !this.pending.isEmpty()) {
+            this.pending.remove(0);
+            this.first++;
+        }
+        
+        while (this.first + this.pending.size() <= index) {
+            this.pending.add(this.iterator.next());
+        }
+        return this.pending.get(index - this.first);
+    }
+
+    /**
+     * Consumes and returns the next token in the stream.
+     *
+     * @return The next token
+     */
+    public Token next() {
+        return get(++current);
+    }
+
+    /**
+     * Checks the current token to see if it matches the provided type. If it
+     * doesn't match this will throw a SyntaxException. This will consume a
+     * token.
+     *
+     * @param type The type of token that we expect
+     * @return Token The current token
+     */
+    public Token expect(TokenType type) {
+        return expect(type, null);
+    }
+
+    /**
+     * Checks the current token to see if it matches the provided type. If it
+     * doesn't match this will throw a SyntaxException. This will consume a
+     * token.
+     *
+     * @param type The type of token that we expect
+     * @param value The expected value of the token
+     * @return Token The current token
+     */
+    public Token expect(TokenType type, String value) {
+        Token token = get(current);
+
+        boolean success = Objects.isNull(value) 
+                ? token.isA(type) : token.isA(type, value);
+
+        if (!success) {
+            String message = String.format("Unexpected token of value \"%s\" and type %s, expected token of type %s and value %s",
+                    token.getValue(), token.getType(), type, value);
+            throw new IllegalStateException(message);
+        }
+        this.next();
+        return token;
+    }
+
+    /**
+     * Returns the next token in the stream without consuming it.
+     *
+     * @return The next token
+     */
+    public Token peek() {
+        return peek(1);
+    }
+
+    /**
+     * Returns a future token in the stream without consuming any.
+     *
+     * @param number How many tokens to lookahead
+     * @return The token we are peeking at
+     */
+    public Token peek(int number) {
+        return get(this.current + number);
+    }
+
+    @Override
+    public String toString() {
+        return getTokens().toString();
+    }
+
+    /**
+     * Looks at the current token. Does not consume the token.
+     *
+     * @return Token The current token
+     */
+    public Token current() {
+        return get(current);
+    }
+
+    /**
+     * used for testing purposes, a stream pulling its tokens only returns the
+     * ones it still holds
+     *
+     * @return List of tokens
+     */
+    public ArrayList<Token> getTokens() {
+        if (null != this.iterator) {
+            return new ArrayList<>(this.pending);
+        }
+        
+        ArrayList<Token> list = new ArrayList<>(this.tokens.length);
+        for (int i = 0; i < this.tokens.length; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+}
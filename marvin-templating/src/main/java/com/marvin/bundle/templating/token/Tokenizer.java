@@ -0,0 +1,115 @@
+package com.marvin.bundle.templating.token;
+
+import java.io.Reader;
+import java.util.List;
+import com.marvin.bundle.templating.Source;
+import com.marvin.bundle.templating.SourceCursor;
+
+public class Tokenizer {
+    
+    private TokenParser tokenParser;
+    
+    /**
+     * When set, the lexer is used instead of the token parser.
+     */
+    private Lexer lexer;
+    
+    /**
+     * Whether templates should be tokenized while they are read.
+     */
+    private boolean streaming;
+    
+    public TokenBuffer tokenize(Source source) throws Exception {
+        SourceCursor cursor = source.cursor();
+        
+        if (null != this.lexer) {
+            TokenBuffer tokens = new TokenBuffer(source);
+            this.lexer.tokenize(cursor, tokens);
+            return tokens;
+        }
+        
+        List<Token> tokens = this.tokenParser.parse(cursor, true);
+        
+        if (tokens == TokenParser.NO_MATCH) {
+            String msg = String.format("Unable to tokenize the template at %s", cursor.getPosition());
+            throw new Exception(msg);
+        }
+        
+        return TokenBuffer.of(source, tokens);
+    }
+    
+    /**
+     * Tokenizes a template while it is read, the lexer pulling characters
+     * from the reader as the parser consumes tokens. Without a lexer, the
+     * whole template is read first.
+     * 
+     * @param name The name of the template
+     * @param reader The reader of the template
+     * @return The stream of tokens
+     * @throws Exception Thrown if a syntax error occurs
+     */
+    public TokenStream stream(String name, Reader reader) throws Exception {
+        if (null != this.lexer) {
+            return new TokenStream(this.lexer.stream(name, reader));
+        }
+        
+        return new TokenStream(tokenize(Source.builder(name).read(reader).build()));
+    }
+    
+    public TokenParser getTokenParser() {
+        return tokenParser;
+    }
+
+    public void setTokenParser(TokenParser tokenParser) {
+        this.tokenParser = tokenParser;
+    }
+
+    public Lexer getLexer() {
+        return lexer;
+    }
+
+    public void setLexer(Lexer lexer) {
+        this.lexer = lexer;
+    }
+    
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    public static TokenizerBuilder builder() {
+        return new TokenizerBuilder();
+    }
+    
+    public static class TokenizerBuilder {
+        private TokenParser tokenParser;
+        private Lexer lexer;
+        private boolean streaming;
+        
+        public TokenizerBuilder parser(TokenParser parser) {
+            this.tokenParser = parser;
+            return this;
+        }
+        
+        public TokenizerBuilder lexer(Lexer lexer) {
+            this.lexer = lexer;
+            return this;
+        }
+        
+        public TokenizerBuilder streaming(boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+        
+        public Tokenizer build() {
+            Tokenizer tokenizer = new Tokenizer();
+            tokenizer.setTokenParser(tokenParser);
+            tokenizer.setLexer(lexer);
+            tokenizer.setStreaming(streaming);
+            return tokenizer;
+        }
+    }
+}
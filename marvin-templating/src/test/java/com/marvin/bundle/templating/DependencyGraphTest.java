@@ -0,0 +1,72 @@
+package com.marvin.bundle.templating;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DependencyGraphTest {
+
+    private final DependencyGraph graph = new DependencyGraph();
+
+    @Test
+    public void findsCyclesThroughIntermediateTemplates() {
+        this.graph.set("page", set("layout", "macros"));
+        this.graph.set("layout", set("base"));
+        this.graph.set("base", set("page"));
+
+        assertEquals(Arrays.asList("page", "layout", "base", "page"), this.graph.findCycle("page"));
+        assertEquals(Arrays.asList("base", "page", "layout", "base"), this.graph.findCycle("base"));
+        assertTrue(this.graph.findCycle("macros").isEmpty());
+    }
+
+    @Test
+    public void findsATemplateDependingOnItself() {
+        this.graph.set("page", set("page"));
+
+        assertEquals(Arrays.asList("page", "page"), this.graph.findCycle("page"));
+    }
+
+    @Test
+    public void findsNoCycleInADiamond() {
+        this.graph.set("page", set("left", "right"));
+        this.graph.set("left", set("base"));
+        this.graph.set("right", set("base"));
+
+        assertTrue(this.graph.findCycle("page").isEmpty());
+        assertTrue(this.graph.findCycle("base").isEmpty());
+    }
+
+    @Test
+    public void collectsTheTransitiveDependents() {
+        this.graph.set("page", set("layout"));
+        this.graph.set("other", set("layout"));
+        this.graph.set("layout", set("base"));
+
+        assertEquals(set("layout", "page", "other"), this.graph.getTransitiveDependents("base"));
+        assertEquals(set("page", "other"), this.graph.getTransitiveDependents("layout"));
+        assertTrue(this.graph.getTransitiveDependents("page").isEmpty());
+    }
+
+    @Test
+    public void replacesTheDependenciesOfATemplate() {
+        this.graph.set("page", set("layout"));
+        this.graph.set("page", set("base"));
+
+        assertEquals(set("base"), this.graph.getDependencies("page"));
+        assertTrue(this.graph.getDependents("layout").isEmpty());
+        assertEquals(set("page"), this.graph.getDependents("base"));
+
+        // a removed template is still known as a dependent of the others
+        this.graph.set("other", set("page"));
+        this.graph.remove("page");
+        assertTrue(this.graph.getDependents("base").isEmpty());
+        assertEquals(set("other"), this.graph.getDependents("page"));
+    }
+
+    private static Set<String> set(String... paths) {
+        return new LinkedHashSet<>(Arrays.asList(paths));
+    }
+}
@@ -0,0 +1,42 @@
+package com.marvin.bundle.templating;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileLoaderTest {
+
+    private Path directory;
+
+    private MappedFileLoader loader;
+
+    @Before
+    public void setUp() throws Exception {
+        Path parent = Files.createTempDirectory("loader");
+        this.directory = Files.createDirectory(parent.resolve("templates"));
+        Files.createDirectory(this.directory.resolve("nested"));
+        Files.write(this.directory.resolve("nested/page.view"), "page".getBytes(StandardCharsets.UTF_8));
+        Files.write(parent.resolve("secret"), "secret".getBytes(StandardCharsets.UTF_8));
+
+        this.loader = MappedFileLoader.builder(this.directory).build();
+    }
+
+    @Test
+    public void loadsTemplatesWithinTheDirectory() throws Exception {
+        assertEquals("page", this.loader.load("nested/page.view").toString());
+        assertEquals("page", this.loader.load("nested/../nested/page.view").toString());
+    }
+
+    @Test
+    public void rejectsPathsLeadingOutOfTheDirectory() {
+        assertThrows(IOException.class, () -> this.loader.load("../secret"));
+        assertThrows(IOException.class, () -> this.loader.load("nested/../../secret"));
+        assertThrows(IOException.class, () -> this.loader.open("../secret"));
+        assertThrows(IOException.class, () -> this.loader.load(this.directory.resolveSibling("secret").toAbsolutePath().toString()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.extention.Directive;
+import com.marvin.bundle.templating.extention.Extension;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The sample templates shipped with the library, read from the sources.
+ */
+public final class Samples {
+
+    public static final Path DIRECTORY = Paths.get("src/main/resources/com/marvin/bundle/templating");
+
+    /**
+     * The directives some samples call, which the core extension does not
+     * provide.
+     */
+    public static final Extension EXTENSION = new Extension() {
+        @Override
+        public Map<String, Directive> getDirectives() {
+            Directive log = (args) -> args;
+            Directive abs = (args) -> Math.abs(((Number) args.get("value")).doubleValue());
+
+            Map<String, Directive> directives = new HashMap<>();
+            directives.put("log", log);
+            directives.put("abs", Directive.builder().withBase(abs).withArg("value").build());
+            return directives;
+        }
+    };
+
+    private Samples() {
+    }
+
+    /**
+     * @return The paths of the samples, relative to the directory
+     */
+    public static List<String> paths() throws IOException {
+        try (Stream<Path> files = Files.walk(DIRECTORY)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> DIRECTORY.relativize(file).toString().replace('\\', '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public static Environment environment() {
+        return Environment.builder().directory(DIRECTORY).build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.extention.Extension;
+import com.marvin.bundle.templating.node.NodeVisitorFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TemplateCacheTest {
+
+    private final TemplateCache cache = TemplateCache.builder()
+            .maximumWeight(3)
+            .weigher(template -> 1)
+            .build();
+
+    @Test
+    public void evictsTheLeastRecentlyUsedTemplates() {
+        Template a = template("a");
+        this.cache.put("a", a);
+        this.cache.put("b", template("b"));
+        this.cache.put("c", template("c"));
+
+        // "b" becomes the least recently used
+        assertSame(a, this.cache.get("a"));
+        this.cache.put("d", template("d"));
+
+        assertFalse(this.cache.contains("b"));
+        assertTrue(this.cache.contains("a"));
+        assertTrue(this.cache.contains("c"));
+        assertTrue(this.cache.contains("d"));
+        assertEquals(3, this.cache.getWeight());
+    }
+
+    @Test
+    public void neverRetainsATemplateHeavierThanTheCache() {
+        TemplateCache cache = TemplateCache.builder().maximumWeight(3).weigher(template -> 4).build();
+        cache.put("a", template("a"));
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void replacesTheWeightOfAReplacedTemplate() {
+        this.cache.put("a", template("a"));
+        this.cache.put("a", template("a"));
+
+        assertEquals(1, this.cache.size());
+        assertEquals(1, this.cache.getWeight());
+    }
+
+    /**
+     * Threads loading a template missing from the cache wait for the one
+     * parsing it.
+     */
+    @Test
+    public void loadsATemplateOnceForConcurrentCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Extension counting = new Extension() {
+            @Override
+            public List<NodeVisitorFactory> getNodeVisitorFactories() {
+                return Collections.singletonList(template -> {
+                    loads.incrementAndGet();
+                    sleep();
+                    return node -> {
+                    };
+                });
+            }
+        };
+        Engine engine = Templates.engine(Engine.builder().extension(counting), "{{ 1 + 1 }}");
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Template>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return engine.load(Templates.NAME);
+                }));
+            }
+            start.countDown();
+
+            Template loaded = results.get(0).get();
+            for (Future<Template> result : results) {
+                assertSame(loaded, result.get());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Template template(String name) {
+        return Template.builder().named(name).build();
+    }
+}
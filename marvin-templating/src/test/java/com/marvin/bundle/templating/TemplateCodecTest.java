@@ -0,0 +1,114 @@
+package com.marvin.bundle.templating;
+
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.token.TokenStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TemplateCodecTest {
+
+    private final Engine engine = Engine.builder()
+            .environment(Samples.environment())
+            .extension(Samples.EXTENSION)
+            .precompiledTemplates(null)
+            .build();
+
+    /**
+     * A decoded template is encoded to the same bytes as the parsed one.
+     */
+    @Test
+    public void roundTripsEverySample() throws Exception {
+        for (String path : Samples.paths()) {
+            Source source = this.engine.getEnvironment().load(path);
+            long checksum = PrecompiledTemplates.checksum(source);
+            byte[] encoded = encode(path, checksum, parse(source));
+
+            Node decoded = decode(encoded, checksum);
+            assertNotNull(path, decoded);
+            assertTrue(path, Arrays.equals(encoded, encode(path, checksum, decoded)));
+        }
+    }
+
+    @Test
+    public void ignoresTemplatesEncodedFromAnotherSource() throws Exception {
+        Source source = Source.builder("e9").read("{{ 1 + 1 }}").build();
+        Source changed = Source.builder("e9").read("{{ 2 + 2 }}").build();
+        byte[] encoded = encode("e9", PrecompiledTemplates.checksum(source), parse(source));
+
+        assertNull(decode(encoded, PrecompiledTemplates.checksum(changed)));
+    }
+
+    @Test
+    public void ignoresTemplatesEncodedByAnotherVersion() throws Exception {
+        Source source = Source.builder("e9").read("{{ 1 + 1 }}").build();
+        long checksum = PrecompiledTemplates.checksum(source);
+        byte[] encoded = encode("e9", checksum, parse(source));
+
+        // the version follows the magic number
+        encoded[4] = (byte) ((TemplateCodec.VERSION - 1) >> 8);
+        encoded[5] = (byte) (TemplateCodec.VERSION - 1);
+
+        assertNull(decode(encoded, checksum));
+    }
+
+    @Test
+    public void ignoresTemplatesEncodedByAnEngineConfiguredDifferently() throws Exception {
+        Source source = Source.builder("e9").read("{{ 1 + 1 }}").build();
+        long checksum = PrecompiledTemplates.checksum(source);
+        byte[] encoded = encode("e9", checksum, parse(source));
+
+        Engine other = Engine.builder()
+                .environment(Samples.environment())
+                .extension(Samples.EXTENSION)
+                .print("<%=", "%>")
+                .precompiledTemplates(null)
+                .build();
+
+        assertNotEquals(this.engine.getFingerprint(), other.getFingerprint());
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            assertNull(TemplateCodec.read(input, other, checksum));
+        }
+    }
+
+    @Test
+    public void checksumsTheCharactersOfTheSource() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        Source source = Source.builder("e9").read(text.toString()).build();
+        Source changed = Source.builder("e9").read(text.append('\u00e9').toString()).build();
+
+        assertEquals(PrecompiledTemplates.checksum(source), PrecompiledTemplates.checksum(Source.builder("e9").read(source.toString()).build()));
+        assertNotEquals(PrecompiledTemplates.checksum(source), PrecompiledTemplates.checksum(changed));
+    }
+
+    private Node parse(Source source) throws Exception {
+        TokenStream tokens = new TokenStream(this.engine.getTokenizer().tokenize(source));
+        return this.engine.getRootNodeParser().parse(tokens, this.engine.getExpressionParser(), this.engine);
+    }
+
+    private byte[] encode(String path, long checksum, Node root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            TemplateCodec.write(path, this.engine.getFingerprint(), checksum, root, output);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Node decode(byte[] encoded, long checksum) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            return TemplateCodec.read(input, this.engine, checksum);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.marvin.bundle.templating;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TemplateDependencyTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("templates");
+        write("base.view", "base|{% block content %}{% endblock %}");
+        write("layout.view", "{% extends 'base.view' %}{% block content %}layout{% endblock %}");
+        write("page.view", "{% extends 'layout.view' %}{% block content %}page{% endblock %}");
+    }
+
+    /**
+     * Templates extending a changed template, directly or not, are loaded
+     * again along with it.
+     */
+    @Test
+    public void invalidatesTheDependentTemplates() throws Exception {
+        Engine engine = engine();
+        assertEquals("base|page", render(engine, "page.view"));
+
+        write("base.view", "changed|{% block content %}{% endblock %}");
+        engine.invalidate("base.view");
+
+        assertFalse(engine.getTemplateCache().contains("base.view"));
+        assertFalse(engine.getTemplateCache().contains("layout.view"));
+        assertFalse(engine.getTemplateCache().contains("page.view"));
+        assertEquals("changed|page", render(engine, "page.view"));
+    }
+
+    @Test
+    public void keepsTheTemplatesAnInvalidatedTemplateDependsOn() throws Exception {
+        write("other.view", "other");
+        Engine engine = engine();
+        render(engine, "page.view");
+        render(engine, "other.view");
+
+        engine.invalidate("page.view");
+
+        assertFalse(engine.getTemplateCache().contains("page.view"));
+        assertTrue(engine.getTemplateCache().contains("layout.view"));
+        assertTrue(engine.getTemplateCache().contains("other.view"));
+    }
+
+    @Test
+    public void rejectsCyclicDependencies() throws Exception {
+        write("first.view", "{% extends 'second.view' %}");
+        write("second.view", "{% extends 'first.view' %}");
+        Engine engine = engine();
+
+        Exception e = assertThrows(Exception.class, () -> engine.load("first.view"));
+        assertEquals("Cyclic template dependency second.view -> first.view -> second.view", e.getMessage());
+    }
+
+    private Engine engine() {
+        return Engine.builder()
+                .environment(Environment.builder().directory(this.directory).build())
+                .precompiledTemplates(null)
+                .build();
+    }
+
+    private void write(String path, String content) throws Exception {
+        Files.write(this.directory.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String render(Engine engine, String path) throws Exception {
+        StringWriter writer = new StringWriter();
+        engine.render(engine.load(path), new WriterRenderer(writer), Collections.emptyMap());
+        return writer.toString().replace(System.lineSeparator(), "");
+    }
+}
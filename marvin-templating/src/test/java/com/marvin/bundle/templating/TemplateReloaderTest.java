@@ -0,0 +1,62 @@
+package com.marvin.bundle.templating;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TemplateReloaderTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("templates");
+        write("base.view", "base|{% block content %}{% endblock %}");
+        write("layout.view", "{% extends 'base.view' %}{% block content %}layout{% endblock %}");
+        write("page.view", "{% extends 'layout.view' %}{% block content %}page{% endblock %}");
+    }
+
+    /**
+     * Templates extending a changed file are reloaded along with it.
+     */
+    @Test
+    public void reloadsTheTemplatesOfChangedFiles() throws Exception {
+        Engine engine = engine();
+        try {
+            assertEquals("base|page", render(engine, "page.view"));
+
+            write("base.view", "changed|{% block content %}{% endblock %}");
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (engine.getTemplateCache().contains("page.view") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals("changed|page", render(engine, "page.view"));
+        } finally {
+            engine.getReloader().close();
+        }
+    }
+
+    private Engine engine() {
+        return Engine.builder()
+                .environment(Environment.builder().directory(this.directory).build())
+                .precompiledTemplates(null)
+                .reload(true)
+                .build();
+    }
+
+    private void write(String path, String content) throws Exception {
+        Files.write(this.directory.resolve(path), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String render(Engine engine, String path) throws Exception {
+        StringWriter writer = new StringWriter();
+        engine.render(engine.load(path), new WriterRenderer(writer), Collections.emptyMap());
+        return writer.toString().replace(System.lineSeparator(), "");
+    }
+}
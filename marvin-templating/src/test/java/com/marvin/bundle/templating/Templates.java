@@ -0,0 +1,36 @@
+package com.marvin.bundle.templating;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Engines loading a single template given as a string.
+ */
+public final class Templates {
+
+    public static final String NAME = "template";
+
+    private Templates() {
+    }
+
+    /**
+     * @param builder The configured engine builder
+     * @param template The source of the template
+     * @return An engine loading the template as {@link #NAME}
+     */
+    public static Engine engine(Engine.EngineBuilder builder, String template) {
+        Environment environment = Environment.builder().build();
+        environment.setSources(Collections.singletonList(Source.builder(NAME).read(template).build()));
+        return builder.environment(environment).precompiledTemplates(null).build();
+    }
+
+    /**
+     * @return The rendered template, without the line separators the renderer adds
+     */
+    public static String render(Engine engine, Map<String, Object> model) throws Exception {
+        StringWriter writer = new StringWriter();
+        engine.render(engine.load(NAME), new WriterRenderer(writer), model);
+        return writer.toString().replace(System.lineSeparator(), "");
+    }
+}
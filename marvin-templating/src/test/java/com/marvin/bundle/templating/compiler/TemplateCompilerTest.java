@@ -0,0 +1,138 @@
+package com.marvin.bundle.templating.compiler;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Environment;
+import com.marvin.bundle.templating.Samples;
+import com.marvin.bundle.templating.Source;
+import com.marvin.bundle.templating.Templates;
+import com.marvin.bundle.templating.WriterRenderer;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TemplateCompilerTest {
+
+    @Test
+    public void rendersTheElseBodyOfEmptyLoops() throws Exception {
+        String template = "{% for item in items %}{{ item }}{% else %}empty{% endfor %}";
+
+        assertRendered("123", template, model("items", Arrays.asList(1, 2, 3)));
+        assertRendered("empty", template, model("items", Collections.emptyList()));
+        // a missing iterable renders neither body
+        assertRendered("", template, model("other", 1));
+    }
+
+    /**
+     * The loop variable of an inner loop is removed once it ends, the one
+     * of the outer loop is not restored.
+     */
+    @Test
+    public void rendersNestedLoops() throws Exception {
+        String template = "{% for i in [1, 2] %}"
+                + "{% for j in ['a', 'b'] %}{{ i }}{{ j }}{{ loop.index() }}{{ loop.last() }},{% endfor %}"
+                + "{{ loop }};"
+                + "{% endfor %}"
+                + "{{ i }}";
+
+        assertRendered("1a0false,1b1true,null;2a0false,2b1true,null;null", template, new HashMap<>());
+    }
+
+    @Test
+    public void exposesTheStateOfTheLoop() throws Exception {
+        String template = "{% for item in items %}"
+                + "{{ loop.index() }}{{ loop.revindex() }}{{ loop.first() }}{{ loop.last() }}{{ loop.length() }}|"
+                + "{% endfor %}";
+
+        assertRendered("02truefalse3|11falsefalse3|20falsetrue3|", template, model("items", Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void setsVariablesAndBranches() throws Exception {
+        String template = "{% set total = count * 2 %}"
+                + "{% if total > 10 %}large{% elseif total > 4 %}medium{% endif %}"
+                + "{% if total > 4 %}{% else %}small{% endif %}"
+                + "{{ total }}";
+
+        assertRendered("large12", template, model("count", 6));
+        assertRendered("medium6", template, model("count", 3));
+        assertRendered("small2", template, model("count", 1));
+    }
+
+    /**
+     * The root of a template extending another one only renders its safe
+     * nodes, the blocks are rendered by the parent.
+     */
+    @Test
+    public void skipsTheUnsafeNodesOfAChildTemplate() throws Exception {
+        Environment environment = Environment.builder().build();
+        environment.setSources(Arrays.asList(
+                Source.builder("base").read("[{% block content %}base{% endblock %}]{{ title }}").build(),
+                Source.builder("child").read("{% extends 'base' %}ignored{{ 1 }}{% set title = 'kept' %}{% if true %}ignored{% endif %}"
+                        + "{% block content %}child{% endblock %}").build()));
+
+        for (boolean compiled : new boolean[]{false, true}) {
+            Engine engine = Engine.builder().environment(environment).precompiledTemplates(null).compiled(compiled).build();
+            assertEquals(compiled, engine.load("child").getRoot() instanceof CompiledNode);
+
+            StringWriter writer = new StringWriter();
+            engine.render(engine.load("child"), new WriterRenderer(writer), new HashMap<>());
+            assertEquals("[child]kept", writer.toString().replace(System.lineSeparator(), ""));
+        }
+    }
+
+    /**
+     * Every sample renders the same whether it is compiled or not.
+     */
+    @Test
+    public void rendersTheSamplesLikeTheInterpreter() throws Exception {
+        Engine interpreted = samples(false);
+        Engine compiled = samples(true);
+
+        for (String path : Samples.paths()) {
+            assertTrue(path, compiled.load(path).getRoot() instanceof CompiledNode);
+            assertEquals(path, render(interpreted, path), render(compiled, path));
+        }
+    }
+
+    private static void assertRendered(String expected, String template, Map<String, Object> model) throws Exception {
+        Engine interpreted = Templates.engine(Engine.builder(), template);
+        Engine compiled = Templates.engine(Engine.builder().compiled(true), template);
+
+        assertTrue(compiled.load(Templates.NAME).getRoot() instanceof CompiledNode);
+        assertEquals(expected, Templates.render(interpreted, new HashMap<>(model)));
+        assertEquals(expected, Templates.render(compiled, new HashMap<>(model)));
+    }
+
+    private static Engine samples(boolean compiled) {
+        return Engine.builder()
+                .environment(Samples.environment())
+                .extension(Samples.EXTENSION)
+                .precompiledTemplates(null)
+                .compiled(compiled)
+                .build();
+    }
+
+    /**
+     * @return The rendered template, or the failure of its render
+     */
+    private static String render(Engine engine, String path) throws Exception {
+        StringWriter writer = new StringWriter();
+        try {
+            engine.render(engine.load(path), new WriterRenderer(writer), new HashMap<>());
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+        return writer.toString();
+    }
+
+    private static Map<String, Object> model(String name, Object value) {
+        Map<String, Object> model = new HashMap<>();
+        model.put(name, value);
+        return model;
+    }
+}
@@ -0,0 +1,70 @@
+package com.marvin.bundle.templating.expression;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Samples;
+import com.marvin.bundle.templating.Source;
+import com.marvin.bundle.templating.WriterRenderer;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.token.TokenStream;
+import java.io.StringWriter;
+import java.util.Collections;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import org.junit.Test;
+
+public class ExpressionParserTest {
+
+    private final Engine engine = Engine.builder().build();
+
+    @Test
+    public void unknownFilterFailsToParse() {
+        assertParseError("{{ a | nosuch }}", "Unknown filter or test nosuch at e9 (Line: 1, Column: 8)");
+    }
+
+    @Test
+    public void unknownTestFailsToParse() {
+        assertParseError("{{ 1 is nosuch }}", "Unknown filter or test nosuch at e9 (Line: 1, Column: 9)");
+        assertParseError("{{ 1 is not nosuch }}", "Unknown filter or test nosuch at e9 (Line: 1, Column: 13)");
+    }
+
+    @Test
+    public void unknownDirectiveFailsToParse() {
+        assertParseError("{{ nosuch(1) }}", "Unknown directive nosuch at e9 (Line: 1, Column: 10)");
+    }
+
+    /**
+     * Some samples call directives the core extension does not provide.
+     */
+    @Test
+    public void unregisteredDirectivesOfTheSamplesFailToParse() {
+        assertParseError("{{ log(name=\"Florian\", justified=true) }}", "Unknown directive log at e9 (Line: 1, Column: 7)");
+        assertParseError("{{ \"a\" .. \"z\" }}\n{{ log(\"Florian\") }}", "Unknown directive log at e9 (Line: 2, Column: 7)");
+        assertParseError("{{ abs(0.35) }}", "Unknown directive abs at e9 (Line: 1, Column: 7)");
+    }
+
+    @Test
+    public void bindsNamedArgumentsOfRegisteredDirectives() throws Exception {
+        Engine engine = Engine.builder().environment(Samples.environment()).precompiledTemplates(null).build();
+
+        StringWriter writer = new StringWriter();
+        engine.render(engine.load("directive/range_named"), new WriterRenderer(writer), Collections.emptyMap());
+        assertEquals("[1, 4, 7, 10][a, b, c, d, e]", writer.toString().replace(System.lineSeparator(), ""));
+    }
+
+    @Test
+    public void namesAfterOtherOperatorsAreOperands() throws Exception {
+        assertNotNull(parse("{{ a and empty }}{{ b == null }}"));
+    }
+
+    private Node parse(String template) throws Exception {
+        Source source = Source.builder("e9").read(template).build();
+        TokenStream tokens = new TokenStream(this.engine.getTokenizer().tokenize(source));
+        return this.engine.getRootNodeParser().parse(tokens, this.engine.getExpressionParser(), this.engine);
+    }
+
+    private void assertParseError(String template, String message) {
+        Exception exception = assertThrows(Exception.class, () -> parse(template));
+        assertEquals(message, exception.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package com.marvin.bundle.templating.expression.accessor;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class AccessorCacheTest {
+
+    private static final Class<?>[] NO_ARGUMENTS = new Class<?>[0];
+
+    @Test
+    public void sharesAccessorsBetweenCallSites() {
+        Accessor accessor = new AccessorCache().find(String.class, "hashCode", NO_ARGUMENTS);
+
+        assertNotNull(accessor);
+        assertSame(accessor, new AccessorCache().find(String.class, "hashCode", NO_ARGUMENTS));
+        assertNull(new AccessorCache().find(String.class, "nosuch", NO_ARGUMENTS));
+    }
+
+    @Test
+    public void becomesMegamorphicPastTheLimit() {
+        AccessorCache cache = new AccessorCache();
+        Class<?>[] types = {String.class, Integer.class, Long.class, Double.class, Object.class};
+
+        for (int i = 0; i < AccessorCache.POLYMORPHIC_LIMIT; i++) {
+            assertNotNull(cache.find(types[i], "hashCode", NO_ARGUMENTS));
+        }
+        assertFalse(cache.isMegamorphic());
+
+        assertNotNull(cache.find(types[AccessorCache.POLYMORPHIC_LIMIT], "hashCode", NO_ARGUMENTS));
+        assertTrue(cache.isMegamorphic());
+    }
+}
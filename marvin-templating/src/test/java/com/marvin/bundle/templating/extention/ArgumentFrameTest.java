@@ -0,0 +1,56 @@
+package com.marvin.bundle.templating.extention;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Templates;
+import java.util.Collections;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import org.junit.Test;
+
+public class ArgumentFrameTest {
+
+    /**
+     * Prints the type of the arguments it receives, and the arguments.
+     */
+    private static final Filter PROBE = Filter.builder()
+            .withBase((input, args) -> args.getClass().getSimpleName() + args)
+            .withArg("a", "A")
+            .withArg("b")
+            .build();
+
+    private static final Extension EXTENSION = new Extension() {
+        @Override
+        public Map<String, Filter> getFilters() {
+            return Collections.singletonMap("probe", PROBE);
+        }
+    };
+
+    @Test
+    public void passesDeclaredArgumentsInAFrame() throws Exception {
+        String template = "{{ x | probe }}|{{ x | probe(1) }}|{{ x | probe(b=2) }}|{{ x | probe(1, 2) }}";
+        String expected = "ArgumentFrame{a=A, b=null}|ArgumentFrame{a=1, b=null}|ArgumentFrame{a=A, b=2}|ArgumentFrame{a=1, b=2}";
+
+        for (boolean optimized : new boolean[]{false, true}) {
+            Engine engine = Templates.engine(Engine.builder().optimized(optimized).extension(EXTENSION), template);
+            assertEquals(expected, Templates.render(engine, Collections.singletonMap("x", 1)));
+        }
+    }
+
+    @Test
+    public void passesUndeclaredArgumentsInAMap() throws Exception {
+        Engine engine = Templates.engine(Engine.builder().extension(EXTENSION), "{{ x | probe(1, 2, 3) }}|{{ x | probe(c=3) }}");
+
+        assertEquals("HashMap{a=1, 2=3, b=2}|HashMap{a=A, b=null, c=3}", Templates.render(engine, Collections.singletonMap("x", 1)));
+    }
+
+    @Test
+    public void rejectsUndeclaredNames() {
+        Parameters parameters = PROBE.getParameters();
+        ArgumentFrame frame = new ArgumentFrame(parameters, new Object[parameters.size()]);
+
+        frame.put("b", 2);
+        assertEquals(2, frame.get("b"));
+        assertThrows(UnsupportedOperationException.class, () -> frame.put("c", 3));
+    }
+}
@@ -0,0 +1,70 @@
+package com.marvin.bundle.templating.node.support;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Renderer;
+import com.marvin.bundle.templating.Templates;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class TextRunNodeTest {
+
+    /**
+     * Texts merged by the optimizer, with the pruned branch and the folded
+     * print between them, are rendered with a single call.
+     */
+    @Test
+    public void rendersMergedTextsAtOnce() throws Exception {
+        String template = "a{% if false %}x{% endif %}b{{ 'c' }}d{{ v }}";
+
+        for (boolean compiled : new boolean[]{false, true}) {
+            Engine engine = Templates.engine(Engine.builder().compiled(compiled), template);
+            RecordingRenderer renderer = new RecordingRenderer();
+            engine.render(engine.load(Templates.NAME), renderer, Collections.singletonMap("v", 1));
+
+            assertEquals(Arrays.asList("text:abcd", "value:1"), renderer.calls);
+        }
+    }
+
+    @Test
+    public void rendersTheTextsAsValuesByDefault() {
+        List<Object> values = new ArrayList<>();
+        Renderer renderer = new Renderer() {
+            @Override
+            public void renderValue(Object value) {
+                values.add(value);
+            }
+
+            @Override
+            public void finalyze() {
+            }
+        };
+
+        TextRunNode node = new TextRunNode(Arrays.asList("a", "b"));
+        node.render(null, renderer);
+
+        assertEquals(Collections.singletonList("ab"), values);
+    }
+
+    private static class RecordingRenderer implements Renderer {
+
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void renderValue(Object value) {
+            this.calls.add("value:" + value);
+        }
+
+        @Override
+        public void renderText(String text) {
+            this.calls.add("text:" + text);
+        }
+
+        @Override
+        public void finalyze() {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.marvin.bundle.templating.operator;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Templates;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ShortCircuitOperatorTest {
+
+    public static class Model {
+
+        public Object getBoom() {
+            throw new IllegalStateException("The right operand must not be evaluated");
+        }
+    }
+
+    @Test
+    public void skipsTheRightOperandWhenTheLeftOneDecides() throws Exception {
+        String template = "{{ false and app.boom }}|{{ true or app.boom }}|{{ f == true and app.boom }}|{{ t == true or app.boom }}";
+
+        for (boolean optimized : new boolean[]{false, true}) {
+            for (boolean compiled : new boolean[]{false, true}) {
+                Engine engine = Templates.engine(Engine.builder().optimized(optimized).compiled(compiled), template);
+
+                Map<String, Object> model = new HashMap<>();
+                model.put("app", new Model());
+                model.put("t", true);
+                model.put("f", false);
+
+                assertEquals("false|true|false|true", Templates.render(engine, model));
+            }
+        }
+    }
+
+    @Test
+    public void evaluatesTheRightOperandOtherwise() throws Exception {
+        Engine engine = Templates.engine(Engine.builder(), "{{ t == true and f }}|{{ f == true or t }}");
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("t", true);
+        model.put("f", false);
+
+        assertEquals("false|true", Templates.render(engine, model));
+    }
+}
@@ -0,0 +1,45 @@
+package com.marvin.bundle.templating.optimizer;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Templates;
+import com.marvin.bundle.templating.expression.support.BinaryExpression;
+import com.marvin.bundle.templating.expression.support.LiteralExpression;
+import com.marvin.bundle.templating.node.support.Node;
+import com.marvin.bundle.templating.node.support.PrintNode;
+import com.marvin.bundle.templating.node.support.RootNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ConstantFolderTest {
+
+    private static final String TEMPLATE = "{{ 1 + 2 }}|{{ false and v }}|{{ v + 1 }}|{{ \"x\" | upper }}";
+
+    /**
+     * Folded strings are merged with the surrounding text.
+     */
+    @Test
+    public void foldsConstantExpressions() throws Exception {
+        Engine engine = Templates.engine(Engine.builder().optimized(true), TEMPLATE);
+
+        List<Class<?>> expressions = new ArrayList<>();
+        for (Node node : ((RootNode) engine.load(Templates.NAME).getRoot()).getBody().getChildren()) {
+            if (node instanceof PrintNode) {
+                expressions.add(((PrintNode) node).getExpression().getClass());
+            }
+        }
+
+        assertEquals(Arrays.asList(LiteralExpression.class, LiteralExpression.class, BinaryExpression.class), expressions);
+    }
+
+    @Test
+    public void rendersLikeTheUnfoldedTemplate() throws Exception {
+        for (boolean optimized : new boolean[]{false, true}) {
+            Engine engine = Templates.engine(Engine.builder().optimized(optimized), TEMPLATE);
+            assertEquals("3|false|3|X", Templates.render(engine, Collections.singletonMap("v", 2L)));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.marvin.bundle.templating.token;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Environment;
+import com.marvin.bundle.templating.Samples;
+import com.marvin.bundle.templating.Source;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LexerTest {
+
+    @Test
+    public void producesTheTokensOfTheTokenParsers() throws Exception {
+        Environment environment = Samples.environment();
+        Tokenizer parsers = Engine.builder().environment(environment).build().getTokenizer();
+        Tokenizer lexer = Engine.builder().environment(environment).lexer(true).build().getTokenizer();
+
+        List<String> paths = Samples.paths();
+        assertTrue(!paths.isEmpty());
+
+        for (String path : paths) {
+            Source source = environment.load(path);
+            List<Token> expected = parsers.tokenize(source).toList();
+            List<Token> actual = lexer.tokenize(source).toList();
+
+            assertEquals(path, expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                String message = String.format("%s, token %d", path, i);
+                assertEquals(message, expected.get(i).getType(), actual.get(i).getType());
+                assertEquals(message, expected.get(i).getValue(), actual.get(i).getValue());
+                assertEquals(message, String.valueOf(expected.get(i).getPosition()), String.valueOf(actual.get(i).getPosition()));
+            }
+        }
+    }
+}
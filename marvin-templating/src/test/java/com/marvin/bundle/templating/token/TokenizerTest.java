@@ -0,0 +1,38 @@
+package com.marvin.bundle.templating.token;
+
+import com.marvin.bundle.templating.Engine;
+import com.marvin.bundle.templating.Source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import org.junit.Test;
+
+public class TokenizerTest {
+
+    @Test
+    public void unclosedStringIsASyntaxError() {
+        assertSyntaxError("before\n{{ \"oops }}\nafter {{ 1 + 1 }}", "Unclosed string at e9 (Line: 2, Column: 4)");
+    }
+
+    @Test
+    public void unclosedCommentIsASyntaxError() {
+        assertSyntaxError("a {# never closed", "Unclosed comment, expected \"#}\" at e9 (Line: 1, Column: 6)");
+    }
+
+    @Test
+    public void unclosedPrintIsASyntaxError() {
+        assertSyntaxError("a {{ 1 +", "Unexpected end of template, expected \"}}\" at e9 (Line: 1, Column: 9)");
+    }
+
+    /**
+     * Both the token parsers and the lexer must fail, with the same message.
+     */
+    private static void assertSyntaxError(String template, String message) {
+        for (boolean lexer : new boolean[]{false, true}) {
+            Tokenizer tokenizer = Engine.builder().lexer(lexer).build().getTokenizer();
+            Source source = Source.builder("e9").read(template).build();
+
+            Exception exception = assertThrows(Exception.class, () -> tokenizer.tokenize(source));
+            assertEquals(message, exception.getMessage());
+        }
+    }
+}
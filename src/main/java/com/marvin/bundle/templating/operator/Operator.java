@@ -1,6 +0,0 @@
-package com.marvin.bundle.templating.operator;
-
-public abstract class Operator {
-    public Operator() {
-    }
-}